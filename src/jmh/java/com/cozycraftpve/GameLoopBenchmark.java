@@ -0,0 +1,91 @@
+package com.cozycraftpve;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-tick work that runs on every server tick of a game: one wave timeline tick, and the
+ * block position packing used for spawn positions, chunk buckets and the chest index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameLoopBenchmark
+{
+    private static final int[] WAVES = {150, 150, 150, 150, 180};
+
+    private WaveTimeline timeline;
+    private boolean finished;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp()
+    {
+        random = new SplittableRandom(42);
+        // Cleanup finishes at once and a finished game starts over, so every tick does work.
+        timeline = new WaveTimeline(new WaveTimeline.Hooks() {
+            @Override
+            public void countdown(int wave, int secondsLeft, boolean first)
+            {
+            }
+
+            @Override
+            public void waveStarted(int wave)
+            {
+            }
+
+            @Override
+            public void waveSecond(int wave, int secondsElapsed, int secondsLeft)
+            {
+            }
+
+            @Override
+            public void waveEnded(int wave)
+            {
+                timeline.cleanupDone();
+            }
+
+            @Override
+            public void finished()
+            {
+                finished = true;
+            }
+        });
+        timeline.start(WAVES, 15, 10);
+    }
+
+    @Benchmark
+    public WaveTimeline.Phase timelineTick()
+    {
+        timeline.tick();
+        if (finished) {
+            finished = false;
+            timeline.start(WAVES, 15, 10);
+        }
+        return timeline.phase();
+    }
+
+    @Benchmark
+    public long packAndChunkKey()
+    {
+        int x = random.nextInt(60_000_000) - 30_000_000;
+        int y = random.nextInt(384) - 64;
+        int z = random.nextInt(60_000_000) - 30_000_000;
+        long packed = BlockPos.pack(x, y, z);
+        return BlockPos.chunkKeyAt(BlockPos.x(packed), BlockPos.z(packed)) ^ BlockPos.y(packed);
+    }
+}
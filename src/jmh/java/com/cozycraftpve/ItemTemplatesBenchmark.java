@@ -0,0 +1,43 @@
+package com.cozycraftpve;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The string half of loot item templates: parsing a plain material and a splash potion with
+ * data, as done for every loot entry on a config load. Building the ItemStack needs a running
+ * server for its item meta and is left out.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ItemTemplatesBenchmark
+{
+    // Fields rather than constants, so the strings are not folded into the benchmark.
+    private String plain = "diamond_sword";
+    private String potion = "splash_potion{Potion:regeneration2}";
+
+    @Benchmark
+    public ItemTemplates.Spec parsePlain()
+    {
+        return ItemTemplates.parse(plain);
+    }
+
+    @Benchmark
+    public ItemTemplates.Spec parsePotion()
+    {
+        return ItemTemplates.parse(potion);
+    }
+}
@@ -0,0 +1,91 @@
+package com.cozycraftpve;
+
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Leaderboard upkeep and rendering on the score index: a kill updating one score, a rank
+ * lookup, building one page of /leaderboard lines, and rebuilding the index on load.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LeaderboardBenchmark
+{
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"10", "1000", "100000"})
+    public int players;
+
+    private UUID[] uuids;
+    private int[] scores;
+    private ScoreIndex index;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp()
+    {
+        random = new SplittableRandom(42);
+        uuids = new UUID[players];
+        scores = new int[players];
+        index = new ScoreIndex();
+        for (int i = 0; i < players; i++) {
+            uuids[i] = new UUID(random.nextLong(), random.nextLong());
+            scores[i] = random.nextInt(10_000);
+            index.put(uuids[i], scores[i]);
+        }
+    }
+
+    @Benchmark
+    public void killUpdatesScore()
+    {
+        int player = random.nextInt(players);
+        scores[player] += 1 + random.nextInt(50);
+        index.put(uuids[player], scores[player]);
+    }
+
+    @Benchmark
+    public int rankLookup()
+    {
+        return index.rank(uuids[random.nextInt(players)]);
+    }
+
+    // Same lines as App.showLeaderboard, with the UUID standing in for the cached name.
+    @Benchmark
+    public void renderPage(Blackhole blackhole)
+    {
+        int pages = Math.max(1, (index.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+        int page = 1 + random.nextInt(pages);
+        int from = (page - 1) * PAGE_SIZE;
+        int to = Math.min(from + PAGE_SIZE, index.size());
+        blackhole.consume("§6§lLeaderboard §7(page " + page + "/" + pages + "):");
+        for (int i = from; i < to; i++) {
+            blackhole.consume("§7#" + (i + 1) + " §a" + index.uuidAt(i) + " §f- §b" + index.scoreAt(i) + " points");
+        }
+    }
+
+    @Benchmark
+    public ScoreIndex rebuild()
+    {
+        ScoreIndex rebuilt = new ScoreIndex();
+        for (int i = 0; i < players; i++) rebuilt.put(uuids[i], scores[i]);
+        return rebuilt;
+    }
+}
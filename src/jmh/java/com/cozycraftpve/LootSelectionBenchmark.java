@@ -0,0 +1,69 @@
+package com.cozycraftpve;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Weighted selection as used for chest tiers (4 entries) and loot lists (40 entries): the
+ * alias table behind chooseTier and LootTable.roll, against the cumulative-weight scan it
+ * replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LootSelectionBenchmark
+{
+    @Param({"4", "40"})
+    public int entries;
+
+    private int[] weights;
+    private int totalWeight;
+    private AliasTable table;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp()
+    {
+        SplittableRandom weightRandom = new SplittableRandom(7);
+        weights = new int[entries];
+        totalWeight = 0;
+        for (int i = 0; i < entries; i++) {
+            weights[i] = 1 + weightRandom.nextInt(50);
+            totalWeight += weights[i];
+        }
+        table = new AliasTable(weights);
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public int aliasTable()
+    {
+        return table.sample(random);
+    }
+
+    @Benchmark
+    public int cumulativeScan()
+    {
+        int roll = random.nextInt(totalWeight);
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) return i;
+        }
+        return weights.length - 1;
+    }
+}
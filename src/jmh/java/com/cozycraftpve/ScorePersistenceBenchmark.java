@@ -0,0 +1,140 @@
+package com.cozycraftpve;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Score persistence through the score journal: queueing a kill's delta on the main thread,
+ * compacting every player into scores.yml, and loading the snapshot plus a journal holding one
+ * delta per player on startup. Compaction and load include the disk, so results depend on the
+ * disk they run on. Appends are timed in fixed batches so the journal stays small.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScorePersistenceBenchmark
+{
+    private static final Logger LOGGER = Logger.getLogger("ScorePersistenceBenchmark");
+    private static final int APPEND_BATCH = 10_000;
+
+    @Param({"10", "1000", "100000"})
+    public int players;
+
+    private File folder;
+    private File loadFolder;
+    private UUID[] uuids;
+    private PlayerStats.Snapshot snapshot;
+    private ScoreJournal live;
+    private ScoreJournal compactor;
+    private ScoreJournal writer;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException
+    {
+        // load() logs every replay; keep the benchmark output readable.
+        LOGGER.setLevel(Level.WARNING);
+        random = new SplittableRandom(42);
+        uuids = new UUID[players];
+        PlayerStats stats = new PlayerStats();
+        for (int i = 0; i < players; i++) {
+            uuids[i] = new UUID(random.nextLong(), random.nextLong());
+            stats.addPoints(stats.slot(uuids[i]), random.nextInt(10_000));
+        }
+        snapshot = stats.snapshot();
+        folder = Files.createTempDirectory("mobroyale-bench").toFile();
+
+        live = start(new File(folder, "live"));
+        File compactFolder = new File(folder, "compact");
+        compactFolder.mkdirs();
+        compactor = new ScoreJournal(compactFolder, LOGGER);
+        compactor.load(new PlayerStats());
+
+        // A snapshot of every player followed by one journal delta each, as after a crash.
+        loadFolder = new File(folder, "load");
+        writer = start(loadFolder);
+        writer.compact(snapshot);
+        for (UUID uuid : uuids) writer.append(uuid, 1);
+        File journal = new File(loadFolder, "scores.journal");
+        long length = 12 + 28L * players;
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (journal.length() != length) {
+            if (System.currentTimeMillis() > deadline) throw new IllegalStateException("Journal was not written");
+            Thread.sleep(10);
+        }
+    }
+
+    private static ScoreJournal start(File dataFolder)
+    {
+        dataFolder.mkdirs();
+        ScoreJournal journal = new ScoreJournal(dataFolder, LOGGER);
+        journal.load(new PlayerStats());
+        journal.start();
+        return journal;
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        PlayerStats.Snapshot empty = new PlayerStats().snapshot();
+        live.close(empty);
+        writer.close(empty);
+        delete(folder);
+    }
+
+    private static void delete(File file)
+    {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) delete(child);
+        }
+        file.delete();
+    }
+
+    // Main-thread cost of recording kills; the writer thread does the disk work.
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5, batchSize = APPEND_BATCH)
+    @Measurement(iterations = 20, batchSize = APPEND_BATCH)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void append()
+    {
+        live.append(uuids[random.nextInt(players)], 1);
+    }
+
+    @Benchmark
+    public void compact() throws IOException
+    {
+        compactor.writeSnapshot(snapshot);
+    }
+
+    @Benchmark
+    public int loadSnapshotAndJournal()
+    {
+        PlayerStats stats = new PlayerStats();
+        new ScoreJournal(loadFolder, LOGGER).load(stats);
+        return stats.size();
+    }
+}
@@ -0,0 +1,89 @@
+package com.cozycraftpve;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writing a session archive and reading the top page back, as /startsession and /viewsession
+ * do. Includes the fsync and rename, so results depend on the disk they run on.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SessionArchiveBenchmark
+{
+    @Param({"10", "1000", "100000"})
+    public int players;
+
+    private File folder;
+    private File written;
+    private File archive;
+    private Map<UUID, Integer> scores;
+    private Map<UUID, Integer> deaths;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        SplittableRandom random = new SplittableRandom(42);
+        scores = new HashMap<>();
+        deaths = new HashMap<>();
+        for (int i = 0; i < players; i++) {
+            UUID uuid = new UUID(random.nextLong(), random.nextLong());
+            scores.put(uuid, random.nextInt(10_000));
+            deaths.put(uuid, random.nextInt(20));
+        }
+        folder = Files.createTempDirectory("mobroyale-bench").toFile();
+        written = new File(folder, "written" + SessionArchive.EXTENSION);
+        archive = new File(folder, "archive" + SessionArchive.EXTENSION);
+        SessionArchive.write(archive, scores, deaths);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) file.delete();
+        }
+        folder.delete();
+    }
+
+    @Benchmark
+    public void write() throws IOException
+    {
+        SessionArchive.write(written, scores, deaths);
+    }
+
+    @Benchmark
+    public long openAndReadTopPage() throws IOException
+    {
+        SessionArchive session = SessionArchive.open(archive);
+        long sum = 0;
+        for (int i = 0; i < Math.min(10, session.size()); i++) {
+            sum += session.scoreAt(i) + session.uuidAt(i).getLeastSignificantBits();
+        }
+        return sum;
+    }
+}
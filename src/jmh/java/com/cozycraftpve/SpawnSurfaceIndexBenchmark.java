@@ -0,0 +1,90 @@
+package com.cozycraftpve;
+
+import java.lang.reflect.Proxy;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The spawn surface index: the async scan of an arena's chunk snapshots at the default and a
+ * large spawn radius, and the per-spawn sample from the finished index. Snapshots are proxies
+ * over rolling terrain, so the scan numbers include proxy dispatch per block read; compare
+ * runs against each other.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SpawnSurfaceIndexBenchmark
+{
+    // The spawn point's Y and spawner.surface-search-height's default.
+    private static final int CENTER_Y = 64;
+    private static final int SEARCH_HEIGHT = 8;
+
+    @Param({"10", "32"})
+    public int radius;
+
+    private ChunkSnapshot[] snapshots;
+    private int minChunk;
+    private int depth;
+    private long[] positions;
+    private SplittableRandom random;
+
+    // Stone up to a floor height that rises and falls a few blocks across the arena.
+    private static ChunkSnapshot chunk(int chunkX, int chunkZ)
+    {
+        return (ChunkSnapshot) Proxy.newProxyInstance(ChunkSnapshot.class.getClassLoader(),
+                new Class<?>[] {ChunkSnapshot.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("getBlockType")) return null;
+                    int x = (chunkX << 4) + (Integer) args[0];
+                    int y = (Integer) args[1];
+                    int z = (chunkZ << 4) + (Integer) args[2];
+                    int floor = CENTER_Y - 1 + ((x * 7 + z * 13) >> 4) % 4;
+                    return y <= floor ? Material.STONE : Material.AIR;
+                });
+    }
+
+    @Setup
+    public void setUp()
+    {
+        minChunk = -radius >> 4;
+        depth = (radius >> 4) - minChunk + 1;
+        snapshots = new ChunkSnapshot[depth * depth];
+        for (int i = 0; i < depth; i++) {
+            for (int j = 0; j < depth; j++) snapshots[i * depth + j] = chunk(minChunk + i, minChunk + j);
+        }
+        positions = scan();
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long[] scan()
+    {
+        return SpawnSurfaceIndex.scan(snapshots, minChunk, minChunk, depth, 0, 0, radius,
+                CENTER_Y - SEARCH_HEIGHT, CENTER_Y + SEARCH_HEIGHT);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Location sample()
+    {
+        return SpawnSurfaceIndex.sample(null, positions, random);
+    }
+}
@@ -0,0 +1,89 @@
+package com.cozycraftpve;
+
+import java.lang.reflect.Proxy;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.entity.Entity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Wave mob bookkeeping with a full wave alive: the kill-path lookup and the register and
+ * unregister churn of mobs spawning and dying. Entities are lightweight proxies, so the
+ * absolute numbers include proxy dispatch; compare runs against each other.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WaveMobRegistryBenchmark
+{
+    private static final int ALIVE = 500;
+    private static final int POOL = 1024;
+
+    private Entity[] pool;
+    private WaveMobRegistry registry;
+    private SplittableRandom random;
+    private int next;
+
+    private static Entity entity(int id, UUID uuid)
+    {
+        return (Entity) Proxy.newProxyInstance(Entity.class.getClassLoader(), new Class<?>[] {Entity.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getEntityId":
+                            return id;
+                        case "getUniqueId":
+                            return uuid;
+                        case "isValid":
+                            return true;
+                        case "hashCode":
+                            return id;
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    @Setup
+    public void setUp()
+    {
+        random = new SplittableRandom(42);
+        pool = new Entity[POOL];
+        for (int i = 0; i < POOL; i++) {
+            pool[i] = entity(1000 + i * 3, new UUID(random.nextLong(), random.nextLong()));
+        }
+        registry = new WaveMobRegistry();
+        for (int i = 0; i < ALIVE; i++) registry.register(pool[i], i % 5);
+        next = ALIVE;
+    }
+
+    @Benchmark
+    public int waveOfKilledMob()
+    {
+        return registry.waveOf(pool[random.nextInt(POOL)]);
+    }
+
+    // One mob dies and one spawns, keeping ALIVE mobs registered.
+    @Benchmark
+    public void spawnAndDie()
+    {
+        registry.unregister(pool[(next - ALIVE) & (POOL - 1)]);
+        registry.register(pool[next & (POOL - 1)], next % 5);
+        next++;
+    }
+}
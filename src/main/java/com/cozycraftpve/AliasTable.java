@@ -0,0 +1,78 @@
+package com.cozycraftpve;
+
+import java.util.SplittableRandom;
+
+// Immutable weighted sampler using Vose's alias method.
+// Built once from integer weights in O(n); every draw is O(1) (one nextInt and one
+// nextDouble) and allocation-free. Entries with weight 0 are never returned.
+public final class AliasTable {
+
+    private final int[] outcome;      // column -> original index
+    private final double[] threshold; // chance of keeping the column's own outcome
+    private final int[] alias;        // column -> original index used otherwise
+
+    public AliasTable(int[] weights) {
+        int positive = 0;
+        long total = 0;
+        for (int weight : weights) {
+            if (weight < 0) throw new IllegalArgumentException("Negative weight: " + weight);
+            if (weight > 0) positive++;
+            total += weight;
+        }
+        if (total == 0) throw new IllegalArgumentException("Total weight must be positive");
+
+        // Only entries that can actually be drawn get a column.
+        int n = positive;
+        outcome = new int[n];
+        threshold = new double[n];
+        alias = new int[n];
+        double[] scaled = new double[n];
+        for (int i = 0, column = 0; i < weights.length; i++) {
+            if (weights[i] == 0) continue;
+            outcome[column] = i;
+            scaled[column] = (double) weights[i] * n / total;
+            column++;
+        }
+
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int column = 0; column < n; column++) {
+            if (scaled[column] < 1.0) {
+                small[smallCount++] = column;
+            } else {
+                large[largeCount++] = column;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            threshold[less] = scaled[less];
+            alias[less] = outcome[more];
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // Whatever is left is 1.0 up to rounding error.
+        while (largeCount > 0) {
+            int column = large[--largeCount];
+            threshold[column] = 1.0;
+            alias[column] = outcome[column];
+        }
+        while (smallCount > 0) {
+            int column = small[--smallCount];
+            threshold[column] = 1.0;
+            alias[column] = outcome[column];
+        }
+    }
+
+    // Draws an index into the original weights array.
+    public int sample(SplittableRandom random) {
+        int column = random.nextInt(outcome.length);
+        return random.nextDouble() < threshold[column] ? outcome[column] : alias[column];
+    }
+}
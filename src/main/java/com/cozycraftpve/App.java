@@ -2,96 +2,98 @@ package com.cozycraftpve;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 import org.bukkit.Bukkit;
-import org.bukkit.Material;
-import org.bukkit.NamespacedKey;
-import org.bukkit.OfflinePlayer;
+import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
-import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDeathEvent;
-import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.PotionMeta;
 import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.potion.PotionData;
-import org.bukkit.potion.PotionType;
-import org.bukkit.scoreboard.DisplaySlot;
-import org.bukkit.scoreboard.Objective;
-import org.bukkit.scoreboard.Score;
-import org.bukkit.scoreboard.Scoreboard;
-import org.bukkit.scoreboard.ScoreboardManager;
 
 public class App extends JavaPlugin implements Listener {
 
-    private final Map<UUID, Integer> playerScores = new HashMap<>();
+    // Points, kills and deaths per player, indexed by a dense per-player slot.
+    private final PlayerStats stats = new PlayerStats();
+    // Ranked view of the scored players for leaderboard pages and rank lookups.
+    private final ScoreIndex scoreIndex = new ScoreIndex();
+    private static final int LEADERBOARD_PAGE_SIZE = 10;
     private String trackedWorld = "world"; // Default tracked world
     private File sessionFolder; // Directory for past sessions
-    private File scoreFile;
-    private FileConfiguration scoreConfig;
+    private ScoreJournal scoreJournal; // Write-behind persistence for player points
     private WaveSpawner waveSpawner;
+    private WaveMobRegistry waveMobs; // Live mobs spawned by waveSpawner
     private LobbyManager lobbyManager;
     private ChestManager chestManager;
+    private ArenaChunks arenaChunks; // Chunks kept loaded while a game runs
+    private final GameRandom gameRandom = new GameRandom(); // Seeded per game by /startgame
+    private LeaderboardSidebar sidebar;
+    private NameCache nameCache;
+    private SeasonStats seasonStats;
     // Loot configuration for mobs spawned by WaveSpawner
-    private Map<EntityType, List<LootEntry>> lootMap = new HashMap<>();
-    private final Map<UUID, Integer> playerDeaths = new HashMap<>();
-
-    // Define point values for each mob type (for scoring kills)
-    private static final Map<EntityType, Integer> mobPoints = new HashMap<>();
-    static {
-        mobPoints.put(EntityType.SPIDER, 1);
-        mobPoints.put(EntityType.ZOMBIE, 2);
-        mobPoints.put(EntityType.CAVE_SPIDER, 10);
-        mobPoints.put(EntityType.HUSK, 3);
-        mobPoints.put(EntityType.BREEZE, 12);
-        mobPoints.put(EntityType.BOGGED, 15);
-        mobPoints.put(EntityType.BLAZE, 20);
-        mobPoints.put(EntityType.MAGMA_CUBE, 2);
-        mobPoints.put(EntityType.PIGLIN_BRUTE, 25);
-        mobPoints.put(EntityType.PIGLIN, 25);
-        mobPoints.put(EntityType.ZOMBIFIED_PIGLIN, 25);
-        mobPoints.put(EntityType.VINDICATOR, 15);
-        mobPoints.put(EntityType.WITHER_SKELETON, 20);
-        mobPoints.put(EntityType.WITCH, 10);
-        mobPoints.put(EntityType.PHANTOM, 12);
-        mobPoints.put(EntityType.VEX, 25);
-        mobPoints.put(EntityType.ILLUSIONER, 15);
-        mobPoints.put(EntityType.SKELETON, 5);
-        mobPoints.put(EntityType.RAVAGER, 45);
-        mobPoints.put(EntityType.CREEPER, 7);
-        mobPoints.put(EntityType.ENDERMAN, 15);
-        mobPoints.put(EntityType.WITHER, 500);
-        mobPoints.put(EntityType.ENDER_DRAGON, 500);
-        mobPoints.put(EntityType.WARDEN, 1000);
-    }
+    private Map<EntityType, LootTable> lootMap = new EnumMap<>(EntityType.class);
+
+    // Kill points per mob and wave in the tracked world, compiled from the "scoring" section of
+    // config.yml. Resolved for the world once per load, so a kill does no world lookup.
+    private volatile ScoringTable.Rows scoring;
+
+    // Hot-path timings and counters, shown by /mrstats and written to metrics.prom.
+    private final Metrics metrics = new Metrics();
+    private final Metrics.Timer killTimer = metrics.timer("mob_kill", "Time spent scoring a wave mob kill.");
+    private final Metrics.Timer sidebarTimer = metrics.timer("sidebar_update", "Time spent updating a leaderboard sidebar line.");
+    private final Metrics.Timer saveTimer = metrics.timer("scores_save", "Main-thread time spent handing scores to the journal writer.");
+    private final Metrics.Counter kills = metrics.counter("mob_kills", "Wave mobs killed by players.");
+    // Structured per-chest and per-spawn events, written to events/events.jsonl off the main thread.
+    private GameEventLog events;
 
     @Override
     public void onEnable() {
         saveDefaultConfig();
         trackedWorld = getConfig().getString("tracked-world", "world");
-        waveSpawner = new WaveSpawner(this);
+        events = new GameEventLog(getDataFolder(), getLogger());
+        events.configure(getConfig().getConfigurationSection("events"));
+        events.start();
+        metrics.gauge("event_log_dropped", "Game events dropped because the event log buffer was full.", events::dropped);
+        waveMobs = new WaveMobRegistry(this);
+        waveSpawner = new WaveSpawner(this, waveMobs, gameRandom, metrics, events);
         lobbyManager = new LobbyManager(this);
-        chestManager = new ChestManager(this);
+        chestManager = new ChestManager(this, gameRandom, metrics, events);
+        arenaChunks = new ArenaChunks(this);
+        waveSpawner.setOnFinished(arenaChunks::release);
         loadLootConfig();
+        loadScoring();
 
         // Create session folder
         sessionFolder = new File(getDataFolder(), "sessions");
         if (!sessionFolder.exists()) sessionFolder.mkdirs();
+        migrateLegacySessions();
+        seasonStats = new SeasonStats(this, sessionFolder);
 
         loadScores();
+        nameCache = new NameCache(this, getConfig().getInt("names.cache-size", 10000), (uuid, name) -> {
+            int slot = stats.slotOf(uuid);
+            if (slot >= 0 && stats.isScored(slot)) updateSidebar(slot);
+        });
+        sidebar = new LeaderboardSidebar(this);
+        for (int slot = 0; slot < stats.size(); slot++) {
+            if (stats.isScored(slot)) updateSidebar(slot);
+        }
+        // Fold the score journal into scores.yml periodically.
+        long compactTicks = getConfig().getLong("scores.compact-interval", 300) * 20L;
+        Bukkit.getScheduler().runTaskTimer(this, this::saveScores, compactTicks, compactTicks);
+        startMetricsExport();
         Bukkit.getPluginManager().registerEvents(this, this);
         registerCommands();
 
@@ -100,7 +102,21 @@ public class App extends JavaPlugin implements Listener {
 
     @Override
     public void onDisable() {
-        saveScores();
+        if (scoreJournal != null) {
+            scoreJournal.close(stats.snapshot());
+        }
+        if (nameCache != null) {
+            nameCache.save();
+        }
+        if (chestManager != null) {
+            chestManager.getChestIndex().save();
+        }
+        if (seasonStats != null) {
+            seasonStats.shutdown();
+        }
+        if (events != null) {
+            events.close();
+        }
         getLogger().info("MobKillTracker Plugin Disabled!");
     }
 
@@ -110,6 +126,7 @@ public class App extends JavaPlugin implements Listener {
         getCommand("startsession").setExecutor(this::onCommand);
         getCommand("viewsession").setExecutor(this::onCommand);
         getCommand("listsessions").setExecutor(this::onCommand);
+        getCommand("seasonstats").setExecutor(this::onCommand);
         getCommand("startwaves").setExecutor(this::onCommand);
         getCommand("startgame").setExecutor(this::onCommand);
         getCommand("stopwaves").setExecutor(this::onCommand);
@@ -117,6 +134,16 @@ public class App extends JavaPlugin implements Listener {
         getCommand("reloadchestconfig").setExecutor(this::onCommand);
     }
 
+    // Compile the scoring rules; falls back to the bundled defaults if config.yml has no
+    // "scoring" section yet.
+    private void loadScoring() {
+        ConfigurationSection section = getConfig().getConfigurationSection("scoring");
+        if (!getConfig().isSet("scoring") && getConfig().getDefaults() != null) {
+            section = getConfig().getDefaults().getConfigurationSection("scoring");
+        }
+        scoring = ScoringTable.compile(section, waveSpawner.getWaveCount(), getLogger()).forWorld(trackedWorld);
+    }
+
     // Load loot configuration from config_spawn.yml for mobs spawned by WaveSpawner.
     private void loadLootConfig() {
         File configFile = new File(getDataFolder(), "config_spawn.yml");
@@ -125,6 +152,8 @@ public class App extends JavaPlugin implements Listener {
             return;
         }
         FileConfiguration config = YamlConfiguration.loadConfiguration(configFile);
+        // Compile into a fresh map and swap it in, so a reload never leaves stale tables behind.
+        Map<EntityType, LootTable> tables = new EnumMap<>(EntityType.class);
         if (config.contains("spawner.loot")) {
             for (String mobKey : config.getConfigurationSection("spawner.loot").getKeys(false)) {
                 EntityType type;
@@ -134,134 +163,61 @@ public class App extends JavaPlugin implements Listener {
                     getLogger().warning("Invalid mob type in loot config: " + mobKey);
                     continue;
                 }
-                List<Map<?, ?>> lootList = config.getMapList("spawner.loot." + mobKey);
-                List<LootEntry> entries = new ArrayList<>();
-                for (Map<?, ?> lootData : lootList) {
-                    String item = (String) lootData.get("item");
-                    int weight = Integer.parseInt(lootData.get("weight").toString());
-                    int amount = lootData.containsKey("amount") ? Integer.parseInt(lootData.get("amount").toString()) : 1;
-                    Map<String, Integer> enchantments = null;
-                    if (lootData.containsKey("enchantments")) {
-                        enchantments = new HashMap<>();
-                        Map<?, ?> enchants = (Map<?, ?>) lootData.get("enchantments");
-                        for (Object key : enchants.keySet()) {
-                            String enchName = key.toString();
-                            int level = Integer.parseInt(enchants.get(key).toString());
-                            enchantments.put(enchName, level);
-                        }
-                    }
-                    entries.add(new LootEntry(item, weight, amount, enchantments));
-                }
-                lootMap.put(type, entries);
-                getLogger().info("Loaded loot for " + mobKey + ": " + entries.size() + " entries.");
+                LootTable table = LootTable.compile(config.getMapList("spawner.loot." + mobKey), getLogger(), "spawner.loot." + mobKey);
+                if (table == null) continue;
+                tables.put(type, table);
+                getLogger().info("Loaded loot for " + mobKey + ": " + table.size() + " entries.");
             }
         }
-    }
-    
-
-    // LootEntry inner class representing a loot option.
-    private static class LootEntry {
-        String itemName;
-        int weight;
-        int amount;
-        Map<String, Integer> enchantments; // key: enchantment name, value: level
-    
-        public LootEntry(String itemName, int weight, int amount, Map<String, Integer> enchantments) {
-            this.itemName = itemName;
-            this.weight = weight;
-            this.amount = amount;
-            this.enchantments = enchantments;
-        }
-    }
-    
-
-    // Helper method to select a LootEntry based on weighted random selection.
-    private LootEntry getWeightedRandom(List<LootEntry> entries) {
-        int totalWeight = entries.stream().mapToInt(e -> e.weight).sum();
-        int random = (int)(Math.random() * totalWeight);
-        for (LootEntry entry : entries) {
-            if (random < entry.weight) {
-                return entry;
-            }
-            random -= entry.weight;
-        }
-        return null;
+        lootMap = tables;
     }
 
     @EventHandler
     public void onMobKill(EntityDeathEvent event) {
         // Process only if a player killed the mob.
         if (!(event.getEntity().getKiller() instanceof Player)) return;
-        // Only apply custom loot to mobs spawned by WaveSpawner.
-        if (!event.getEntity().hasMetadata("waveSpawner")) return;
+        // Only score and apply custom loot to mobs spawned by WaveSpawner.
+        int wave = waveMobs.waveOf(event.getEntity());
+        if (wave < 0) return;
     
         Player player = event.getEntity().getKiller();
         World world = player.getWorld();
         if (!world.getName().equalsIgnoreCase(trackedWorld)) return;
+        long start = System.nanoTime();
     
         EntityType entityType = event.getEntity().getType();
         UUID playerUUID = player.getUniqueId();
     
-        int points = mobPoints.getOrDefault(entityType, 1);
-        playerScores.put(playerUUID, playerScores.getOrDefault(playerUUID, 0) + points);
-        player.sendMessage("§aYou earned §b" + points + "§a points! Total: §e" + playerScores.get(playerUUID));
-        saveScores();
-        updateLeaderboard();
+        int points = scoring.points(wave, entityType);
+        int slot = stats.slot(playerUUID);
+        int total = stats.addKill(slot, points);
+        scoreIndex.put(playerUUID, total);
+        player.sendMessage("§aYou earned §b" + points + "§a points! Total: §e" + total);
+        scoreJournal.append(playerUUID, points);
+        updateSidebar(slot);
     
         // Apply custom loot if configured for this mob type.
-        if (lootMap.containsKey(entityType)) {
-            List<LootEntry> entries = lootMap.get(entityType);
-            LootEntry selected = getWeightedRandom(entries);
-            if (selected != null) {
-                event.getDrops().clear();
-                // If the item string contains potion data, use parseItemStack, else use a simple method.
-                ItemStack drop;
-                if (selected.itemName.toLowerCase().contains("{")) {
-                    drop = parseItemStack(selected.itemName, selected.amount);
-                } else {
-                    Material material = Material.getMaterial(selected.itemName.toUpperCase());
-                    if (material == null) {
-                        getLogger().warning("Invalid material for loot: " + selected.itemName);
-                        return;
-                    }
-                    drop = new ItemStack(material, selected.amount);
-                }
-                
-                // Apply enchantments if defined in the loot entry.
-                if (selected.enchantments != null && drop != null) {
-                    for (Map.Entry<String, Integer> enchantEntry : selected.enchantments.entrySet()) {
-                        // Use the modern API: convert the enchantment name into a NamespacedKey.
-                        NamespacedKey key = NamespacedKey.minecraft(enchantEntry.getKey().toLowerCase());
-                        org.bukkit.enchantments.Enchantment enchant = org.bukkit.enchantments.Enchantment.getByKey(key);
-                        if (enchant != null) {
-                            drop.addUnsafeEnchantment(enchant, enchantEntry.getValue());
-                        } else {
-                            getLogger().warning("Invalid enchantment key: " + enchantEntry.getKey());
-                        }
-                    }
-                }
-                
-                if (drop != null) {
-                    event.getDrops().add(drop);
-                    //player.sendMessage("§6Custom loot dropped: " + selected.itemName.toUpperCase());
-                } else {
-                    getLogger().warning("Failed to create custom loot for: " + selected.itemName);
-                }
-            }
+        LootTable lootTable = lootMap.get(entityType);
+        if (lootTable != null) {
+            LootEntry selected = lootTable.roll(gameRandom.mobLoot());
+            event.getDrops().clear();
+            event.getDrops().add(selected.newItem());
         }
-        
+        kills.inc();
+        killTimer.since(start);
     }
 
     @EventHandler
     public void onPlayerDeath(org.bukkit.event.entity.PlayerDeathEvent event) {
         Player player = event.getEntity();
-        UUID uuid = player.getUniqueId();
-        int deaths = playerDeaths.getOrDefault(uuid, 0) + 1;
-        playerDeaths.put(uuid, deaths);
+        int slot = stats.slot(player.getUniqueId());
+        int deaths = stats.addDeath(slot);
         // Optionally send a message:
         player.sendMessage("§cYou died! Total deaths: " + deaths);
         // Update the leaderboard so it reflects the new death count.
-        updateLeaderboard();
+        if (stats.isScored(slot)) {
+            updateSidebar(slot);
+        }
     }
         
 
@@ -270,8 +226,15 @@ public class App extends JavaPlugin implements Listener {
             case "checkkills":
                 if (sender instanceof Player) {
                     Player player = (Player) sender;
-                    int score = playerScores.getOrDefault(player.getUniqueId(), 0);
-                    player.sendMessage("§eYour total mob kill points: §b" + score);
+                    int slot = stats.slotOf(player.getUniqueId());
+                    int score = slot < 0 ? 0 : stats.points(slot);
+                    int rank = scoreIndex.rank(player.getUniqueId());
+                    if (rank > 0) {
+                        player.sendMessage("§eYour total mob kill points: §b" + score
+                                + " §e(rank §b#" + rank + "§e of §b" + scoreIndex.size() + "§e)");
+                    } else {
+                        player.sendMessage("§eYour total mob kill points: §b" + score);
+                    }
                 }
                 return true;
 
@@ -285,26 +248,76 @@ public class App extends JavaPlugin implements Listener {
                 return true;
 
             case "viewsession":
-                if (args.length != 1) {
-                    sender.sendMessage("§cUsage: /viewsession <session_name>");
+                if (args.length < 1 || args.length > 2) {
+                    sender.sendMessage("§cUsage: /viewsession <session_name> [page]");
                     return true;
                 }
-                viewSession(sender, args[0]);
+                int sessionPage = parsePage(sender, args, 1);
+                if (sessionPage < 1) return true;
+                viewSession(sender, args[0], sessionPage);
                 return true;
 
             case "listsessions":
                 listSessions(sender);
                 return true;
 
+            case "seasonstats":
+                int seasonPage = parsePage(sender, args, 0);
+                if (seasonPage < 1) return true;
+                sender.sendMessage("§7Calculating season stats...");
+                seasonStats.request(result -> showSeasonStats(sender, result, seasonPage));
+                return true;
+
             case "leaderboard":
-                showLeaderboard(sender, playerScores);
-                updateLeaderboard();
+                int page = parsePage(sender, args, 0);
+                if (page < 1) return true;
+                showLeaderboard(sender, scoreIndex, page);
                 return true;
 
             case "stopwaves":
                 waveSpawner.stopWaves();
                 sender.sendMessage("Wave spawning stopped.");
                 return true;
+
+            case "pausewaves":
+                waveSpawner.pauseWaves();
+                return true;
+
+            case "resumewaves":
+                waveSpawner.resumeWaves();
+                return true;
+
+            case "skipwave":
+                waveSpawner.skipWave();
+                sender.sendMessage(waveSpawner.describeState());
+                return true;
+
+            case "jumpwave":
+                if (args.length != 1) {
+                    sender.sendMessage("Usage: /jumpwave <wave>");
+                    return true;
+                }
+                try {
+                    waveSpawner.jumpToWave(Integer.parseInt(args[0]));
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    sender.sendMessage("§c" + (e instanceof NumberFormatException ? "Not a wave number: " + args[0] : e.getMessage()));
+                    return true;
+                }
+                sender.sendMessage(waveSpawner.describeState());
+                return true;
+
+            case "wavestatus":
+                sender.sendMessage(waveSpawner.describeState());
+                return true;
+
+            case "mrstats":
+                // Optional filter, e.g. /mrstats loot
+                String filter = args.length > 0 ? args[0].toLowerCase() : "";
+                sender.sendMessage("§6§lMobRoyale metrics" + (filter.isEmpty() ? "" : " matching '" + filter + "'") + ":");
+                for (String line : metrics.summary()) {
+                    if (line.contains(filter)) sender.sendMessage("§e" + line);
+                }
+                return true;
                 
             case "reloadwaves":
                 // Reload the main configuration file
@@ -313,12 +326,33 @@ public class App extends JavaPlugin implements Listener {
                 waveSpawner.reload();
                 // Reload loot configuration if needed
                 loadLootConfig();
+                loadScoring();
+                events.configure(getConfig().getConfigurationSection("events"));
                 sender.sendMessage("Wave configuration reloaded.");
                 return true;
 
             case "startgame":
+                // An explicit seed replays a previous game's spawns and loot rolls.
+                long seed;
+                try {
+                    seed = args.length > 0 ? Long.parseLong(args[0]) : GameRandom.newSeed();
+                } catch (NumberFormatException e) {
+                    sender.sendMessage("§cSeed must be a whole number: " + args[0]);
+                    return true;
+                }
+                gameRandom.reseed(seed);
+                getLogger().info("Starting game with seed " + seed);
+                sender.sendMessage("§7Game seed: " + seed);
                 Bukkit.dispatchCommand(Bukkit.getConsoleSender(), "heal @a");
                 Bukkit.dispatchCommand(Bukkit.getConsoleSender(), "clearlag");
+                // Load the arena during the start delay so the game itself never waits on chunk loads.
+                if (waveSpawner.getSpawnPoint() != null) {
+                    arenaChunks.addRadius(waveSpawner.getSpawnPoint(), waveSpawner.getRadius());
+                }
+                for (Location spawn : lobbyManager.getLobbySpawns()) arenaChunks.addPoint(spawn);
+                LootChestRegistry chests = chestManager.getChestIndex();
+                for (long chunkKey : chests.chunkKeys()) arenaChunks.addChunk(chests.getWorld(), chunkKey);
+                arenaChunks.load(240);
                 Bukkit.getScheduler().runTaskLater(this, () -> {
                     lobbyManager.startGame();
                     chestManager.reloadLoot();
@@ -337,9 +371,15 @@ public class App extends JavaPlugin implements Listener {
                 // Stop game: reset lobby and stop waves.
                 waveSpawner.stopWaves();
                 lobbyManager.stopGame();
+                arenaChunks.release();
                 sender.sendMessage("Force stopping game.");
                 return true;
 
+            case "rescanchests":
+                int found = chestManager.rescanChests();
+                sender.sendMessage("Indexed " + found + " loot chests in loaded chunks.");
+                return true;
+
             case "reloadloot":
                 chestManager.reloadLoot();
                 sender.sendMessage("Loot reloaded.");
@@ -364,54 +404,51 @@ public class App extends JavaPlugin implements Listener {
         return false;
     }
 
+    // Compacts the score journal into scores.yml on the journal's writer thread.
     private void saveScores() {
-        if (scoreFile == null) {
-            scoreFile = new File(getDataFolder(), "scores.yml");
-        }
-
-        scoreConfig = new YamlConfiguration();
-        for (Map.Entry<UUID, Integer> entry : playerScores.entrySet()) {
-            scoreConfig.set(entry.getKey().toString(), entry.getValue());
-        }
+        long start = System.nanoTime();
+        scoreJournal.compact(stats.snapshot());
+        saveTimer.since(start);
+    }
 
-        try {
-            scoreConfig.save(scoreFile);
-        } catch (IOException e) {
-            getLogger().severe("Could not save scores.yml!");
-            e.printStackTrace();
-        }
+    // Writes metrics.prom (Prometheus text format) every metrics.export-interval seconds.
+    // The text is rendered on the main thread, where the gauges' sources live, and written
+    // off it.
+    private void startMetricsExport() {
+        long exportTicks = getConfig().getLong("metrics.export-interval", 30) * 20L;
+        if (exportTicks <= 0) return;
+        File metricsFile = new File(getDataFolder(), "metrics.prom");
+        Bukkit.getScheduler().runTaskTimer(this, () -> {
+            String exposition = metrics.exposition();
+            Bukkit.getScheduler().runTaskAsynchronously(this, () -> {
+                try {
+                    Metrics.write(metricsFile, exposition);
+                } catch (IOException e) {
+                    getLogger().warning("Could not write metrics.prom: " + e.getMessage());
+                }
+            });
+        }, exportTicks, exportTicks);
     }
 
+    // Replays scores.yml plus any journaled deltas, then starts the background writer.
     private void loadScores() {
-        scoreFile = new File(getDataFolder(), "scores.yml");
-
-        if (!scoreFile.exists()) {
-            try {
-                scoreFile.createNewFile();
-            } catch (IOException e) {
-                getLogger().severe("Could not create scores.yml!");
-                e.printStackTrace();
-            }
-        }
+        scoreJournal = new ScoreJournal(getDataFolder(), getLogger());
+        scoreJournal.load(stats);
+        scoreJournal.start();
 
-        scoreConfig = YamlConfiguration.loadConfiguration(scoreFile);
-        playerScores.clear();
-
-        for (String key : scoreConfig.getKeys(false)) {
-            playerScores.put(UUID.fromString(key), scoreConfig.getInt(key));
+        scoreIndex.clear();
+        for (int slot = 0; slot < stats.size(); slot++) {
+            if (stats.isScored(slot)) scoreIndex.put(stats.owner(slot), stats.points(slot));
         }
     }
 
     private synchronized void startNewSession(String sessionName) {
-        File sessionFile = new File(new File(getDataFolder(), "sessions"), sessionName + ".yml");
-
-        YamlConfiguration sessionData = new YamlConfiguration();
-        for (Map.Entry<UUID, Integer> entry : playerScores.entrySet()) {
-            sessionData.set(entry.getKey().toString(), entry.getValue());
-        }
+        File sessionFile = new File(sessionFolder, sessionName + SessionArchive.EXTENSION);
 
         try {
-            sessionData.save(sessionFile);
+            PlayerStats.Snapshot snapshot = stats.snapshot();
+            SessionArchive.write(sessionFile, snapshot.scores(), snapshot.deaths());
+            seasonStats.invalidate();
             getLogger().info("Session '" + sessionName + "' saved successfully.");
         } catch (Exception e) {
             getLogger().severe("Failed to save session: " + sessionName);
@@ -419,33 +456,44 @@ public class App extends JavaPlugin implements Listener {
             return;
         }
 
-        playerScores.clear();
+        stats.resetScores();
+        scoreIndex.clear();
+        sidebar.clear();
         saveScores();
         getLogger().info("Active scores reset after starting session '" + sessionName + "'.");
     }
 
-    private void viewSession(CommandSender sender, String sessionName) {
-        File sessionFile = new File(new File(getDataFolder(), "sessions"), sessionName + ".yml");
+    private void viewSession(CommandSender sender, String sessionName, int page) {
+        File sessionFile = new File(sessionFolder, sessionName + SessionArchive.EXTENSION);
 
         if (!sessionFile.exists()) {
             sender.sendMessage("§cSession '" + sessionName + "' does not exist.");
             return;
         }
 
-        YamlConfiguration sessionData = YamlConfiguration.loadConfiguration(sessionFile);
-        Map<UUID, Integer> sessionScores = new HashMap<>();
-
-        for (String key : sessionData.getKeys(false)) {
-            sessionScores.put(UUID.fromString(key), sessionData.getInt(key));
+        SessionArchive session;
+        try {
+            session = SessionArchive.open(sessionFile);
+        } catch (IOException e) {
+            sender.sendMessage("§cSession '" + sessionName + "' could not be read.");
+            getLogger().severe("Failed to read session: " + sessionName);
+            e.printStackTrace();
+            return;
         }
 
         sender.sendMessage("§6§lLeaderboard - Session: " + sessionName);
-        showLeaderboard(sender, sessionScores);
+        showLeaderboard(sender, session, page);
+        if (sender instanceof Player) {
+            int position = session.indexOf(((Player) sender).getUniqueId());
+            if (position >= 0) {
+                sender.sendMessage("§eYou placed §b#" + (position + 1) + "§e with §b" + session.scoreAt(position)
+                        + "§e points and §c" + session.deathsAt(position) + "§e deaths.");
+            }
+        }
     }
 
     private void listSessions(CommandSender sender) {
-        File sessionsDir = new File(getDataFolder(), "sessions");
-        File[] sessionFiles = sessionsDir.listFiles();
+        File[] sessionFiles = sessionFolder.listFiles((dir, name) -> name.endsWith(SessionArchive.EXTENSION));
 
         if (sessionFiles == null || sessionFiles.length == 0) {
             sender.sendMessage("§cNo past sessions found.");
@@ -454,133 +502,105 @@ public class App extends JavaPlugin implements Listener {
 
         sender.sendMessage("§6§lPast Sessions:");
         for (File file : sessionFiles) {
-            sender.sendMessage("§e- " + file.getName().replace(".yml", ""));
+            String name = file.getName();
+            sender.sendMessage("§e- " + name.substring(0, name.length() - SessionArchive.EXTENSION.length()));
         }
     }
 
-    private void showLeaderboard(CommandSender sender, Map<UUID, Integer> scores) {
-        List<Map.Entry<UUID, Integer>> sortedScores = new ArrayList<>(scores.entrySet());
-        sortedScores.sort((a, b) -> b.getValue().compareTo(a.getValue()));
+    // One-time conversion of sessions/*.yml into binary archives. The original file is
+    // kept as <name>.yml.migrated so it is not picked up again.
+    private void migrateLegacySessions() {
+        File[] legacyFiles = sessionFolder.listFiles((dir, name) -> name.endsWith(".yml"));
+        if (legacyFiles == null) return;
+        for (File legacyFile : legacyFiles) {
+            String sessionName = legacyFile.getName().substring(0, legacyFile.getName().length() - ".yml".length());
+            YamlConfiguration sessionData = YamlConfiguration.loadConfiguration(legacyFile);
+            Map<UUID, Integer> sessionScores = new HashMap<>();
+            for (String key : sessionData.getKeys(false)) {
+                try {
+                    sessionScores.put(UUID.fromString(key), sessionData.getInt(key));
+                } catch (IllegalArgumentException e) {
+                    getLogger().warning("Skipping invalid UUID in session " + sessionName + ": " + key);
+                }
+            }
+            try {
+                SessionArchive.write(new File(sessionFolder, sessionName + SessionArchive.EXTENSION), sessionScores, null);
+                if (!legacyFile.renameTo(new File(sessionFolder, legacyFile.getName() + ".migrated"))) {
+                    getLogger().warning("Migrated session " + sessionName + " but could not rename " + legacyFile.getName());
+                }
+                getLogger().info("Migrated session '" + sessionName + "' to the binary archive format.");
+            } catch (IOException e) {
+                getLogger().severe("Failed to migrate session: " + sessionName);
+                e.printStackTrace();
+            }
+        }
+    }
 
-        sender.sendMessage("§6§lLeaderboard:");
-        for (Map.Entry<UUID, Integer> entry : sortedScores) {
-            String playerName = Bukkit.getOfflinePlayer(entry.getKey()).getName();
-            sender.sendMessage("§a" + playerName + " §f- §b" + entry.getValue() + " points");
+    // Sends one page of the leaderboard; only the rows on that page are looked up.
+    private void showLeaderboard(CommandSender sender, RankedScores scores, int page) {
+        int pages = Math.max(1, (scores.size() + LEADERBOARD_PAGE_SIZE - 1) / LEADERBOARD_PAGE_SIZE);
+        page = Math.min(page, pages);
+        int from = (page - 1) * LEADERBOARD_PAGE_SIZE;
+        int to = Math.min(from + LEADERBOARD_PAGE_SIZE, scores.size());
+
+        sender.sendMessage("§6§lLeaderboard §7(page " + page + "/" + pages + "):");
+        for (int i = from; i < to; i++) {
+            String playerName = nameCache.get(scores.uuidAt(i));
+            sender.sendMessage("§7#" + (i + 1) + " §a" + playerName + " §f- §b" + scores.scoreAt(i) + " points");
         }
     }
 
-    private void updateLeaderboard() {
-        // Get the scoreboard manager and create a new scoreboard.
-        ScoreboardManager manager = Bukkit.getScoreboardManager();
-        Scoreboard board = manager.getNewScoreboard();
-        Objective objective = board.registerNewObjective("leaderboard", "dummy", "Leaderboard");
-        objective.setDisplaySlot(DisplaySlot.SIDEBAR);
-        
-        // For each player in your kill scores, display both kills and deaths.
-        // (Assuming playerScores stores kill counts.)
-        for (UUID uuid : playerScores.keySet()) {
-            int kills = playerScores.getOrDefault(uuid, 0);
-            int deaths = playerDeaths.getOrDefault(uuid, 0);
-            OfflinePlayer off = Bukkit.getOfflinePlayer(uuid);
-            String name = off.getName();
-            if (name == null) {
-                name = uuid.toString().substring(0, 8);
-            }
-            String line ="§5" +  name + " | §4☠: §c" + deaths + "§5 | §a";
-            Score score = objective.getScore(line);
-            // You can use kills for ordering or a composite value.
-            score.setScore(kills);
+    // Renders one page of the season rankings; runs on the main thread once the scan is done.
+    private void showSeasonStats(CommandSender sender, SeasonStats.Result result, int page) {
+        if (result == null) {
+            sender.sendMessage("§cSeason stats could not be calculated. Check the console for details.");
+            return;
         }
-        
-        // Set this scoreboard for all online players.
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            player.setScoreboard(board);
+        int pages = Math.max(1, (result.size() + LEADERBOARD_PAGE_SIZE - 1) / LEADERBOARD_PAGE_SIZE);
+        page = Math.min(page, pages);
+        int from = (page - 1) * LEADERBOARD_PAGE_SIZE;
+        int to = Math.min(from + LEADERBOARD_PAGE_SIZE, result.size());
+
+        sender.sendMessage("§6§lSeason Stats §7(" + result.getSessionCount() + " sessions, page " + page + "/" + pages + "):");
+        for (int i = from; i < to; i++) {
+            String playerName = nameCache.get(result.playerAt(i));
+            sender.sendMessage("§7#" + (i + 1) + " §a" + playerName + " §f- §b" + result.totalAt(i) + " points"
+                    + " §7| avg §e" + String.format("%.1f", result.averageAt(i))
+                    + " §7| best §e" + result.bestAt(i)
+                    + " §7| §e" + result.sessionsAt(i) + " §7sessions");
         }
     }
 
-    private void resetLeaderboard() {
-        // Clear in-memory maps.
-        playerScores.clear();
-        // Optionally, clear playerDeaths if you're tracking deaths as well.
-        // playerDeaths.clear();
-    
-        // Create a new (empty) configuration and save it to scores.yml.
-        scoreConfig = new YamlConfiguration();
+    // Reads an optional page number from args[index]; returns -1 (after telling the sender) if invalid.
+    private int parsePage(CommandSender sender, String[] args, int index) {
+        if (args.length <= index) return 1;
         try {
-            scoreConfig.save(scoreFile);
-            getLogger().info("Leaderboard reset; scores.yml cleared.");
-        } catch (IOException e) {
-            getLogger().severe("Could not save scores.yml while resetting leaderboard!");
-            e.printStackTrace();
+            int page = Integer.parseInt(args[index]);
+            if (page >= 1) return page;
+        } catch (NumberFormatException ignored) {
         }
+        sender.sendMessage("§cPage must be a positive number.");
+        return -1;
     }
-    
-    
-    private ItemStack parseItemStack(String itemString, int amount) {
-        // Check if extra data is provided (i.e. contains a '{...}' block)
-        if (itemString.contains("{")) {
-            int braceIndex = itemString.indexOf("{");
-            String baseMaterialName = itemString.substring(0, braceIndex).trim().toUpperCase();
-            String dataPart = itemString.substring(braceIndex + 1, itemString.length() - 1).trim(); // Remove { and }
-            
-            Material mat = Material.getMaterial(baseMaterialName);
-            if (mat == null) {
-                getLogger().warning("Invalid material: " + baseMaterialName);
-                return null;
-            }
-            
-            ItemStack item = new ItemStack(mat, amount);
-            // If it's a splash potion and the extra data starts with "Potion:"
-            if (mat == Material.SPLASH_POTION && dataPart.startsWith("Potion:")) {
-                String potionInfo = dataPart.substring("Potion:".length()).toLowerCase(); // e.g. "regeneration2"
-                boolean upgraded = false;
-                // Determine level: if ends with '2', mark as upgraded (level II)
-                if (potionInfo.endsWith("2")) {
-                    upgraded = true;
-                    potionInfo = potionInfo.substring(0, potionInfo.length() - 1);
-                } else if (potionInfo.endsWith("1")) {
-                    potionInfo = potionInfo.substring(0, potionInfo.length() - 1);
-                }
-                
-                PotionType potionType = null;
-                switch (potionInfo) {
-                    case "regeneration":
-                        // Note: Vanilla doesn't usually have splash regeneration, but you can map it as you like.
-                        potionType = PotionType.REGENERATION;
-                        break;
-                    case "swiftness":
-                        potionType = PotionType.SWIFTNESS;
-                        break;
-                    case "strength":
-                        potionType = PotionType.STRENGTH;
-                        break;
-                    case "healing":
-                        potionType = PotionType.HEALING;
-                        break;
-                    default:
-                        getLogger().warning("Unknown potion type: " + potionInfo);
-                        break;
-                }
-                if (potionType != null) {
-                    PotionMeta meta = (PotionMeta) item.getItemMeta();
-                    if (meta != null) {
-                        meta.setBasePotionData(new PotionData(potionType, false, upgraded));
-                        item.setItemMeta(meta);
-                    }
-                }
-            }
-            return item;
-        } else {
-            // No extra data; simply create the ItemStack.
-            Material material = Material.getMaterial(itemString.toUpperCase());
-            if (material == null) {
-                getLogger().warning("Invalid material: " + itemString);
-                return null;
-            }
-            return new ItemStack(material, amount);
-        }
+
+    // Queues a sidebar update for one player; the sidebar flushes changes once per tick.
+    private void updateSidebar(int slot) {
+        long start = System.nanoTime();
+        UUID uuid = stats.owner(slot);
+        // Kill points are the line's score; deaths are part of the line text.
+        sidebar.update(uuid, nameCache.get(uuid), stats.points(slot), stats.deaths(slot));
+        sidebarTimer.since(start);
     }
+
+    private void resetLeaderboard() {
+        // Clear points and kills; deaths are kept.
+        stats.resetScores();
+        scoreIndex.clear();
+        sidebar.clear();
     
-    
+        // Compact the (now empty) scores so scores.yml and the journal are cleared.
+        saveScores();
+        getLogger().info("Leaderboard reset; scores.yml cleared.");
+    }
 
 }
@@ -0,0 +1,129 @@
+package com.cozycraftpve;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+// Keeps the chunks a game needs (spawn radius, lobby spawns, loot chests) loaded for the
+// whole game. The chunk set is collected with add*(), then load() spreads the loading over
+// a number of ticks and holds a plugin chunk ticket on each chunk until release().
+// Spigot has no async chunk loading API, so each load is still synchronous; spreading
+// them out keeps any single tick cheap and gets the work done before the game starts.
+public class ArenaChunks {
+
+    private final JavaPlugin plugin;
+    private final Map<World, Set<Long>> wanted = new HashMap<>();
+    private final Map<World, Set<Long>> ticketed = new HashMap<>();
+    private BukkitTask loader;
+
+    public ArenaChunks(JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    // Adds every chunk touched by the disc around center.
+    public void addRadius(Location center, double radius) {
+        World world = center.getWorld();
+        if (world == null) return;
+        double cx = center.getX();
+        double cz = center.getZ();
+        double radiusSq = radius * radius;
+        for (int chunkX = (int) Math.floor(cx - radius) >> 4; chunkX <= (int) Math.floor(cx + radius) >> 4; chunkX++) {
+            for (int chunkZ = (int) Math.floor(cz - radius) >> 4; chunkZ <= (int) Math.floor(cz + radius) >> 4; chunkZ++) {
+                // Distance from the centre to the nearest point of the chunk.
+                double dx = Math.max(0, Math.max(chunkX * 16 - cx, cx - (chunkX * 16 + 16)));
+                double dz = Math.max(0, Math.max(chunkZ * 16 - cz, cz - (chunkZ * 16 + 16)));
+                if (dx * dx + dz * dz <= radiusSq) add(world, BlockPos.chunkKey(chunkX, chunkZ));
+            }
+        }
+    }
+
+    public void addPoint(Location location) {
+        if (location.getWorld() == null) return;
+        add(location.getWorld(), BlockPos.chunkKeyAt(location.getBlockX(), location.getBlockZ()));
+    }
+
+    public void addChunk(World world, long chunkKey) {
+        if (world != null) add(world, chunkKey);
+    }
+
+    private void add(World world, long chunkKey) {
+        wanted.computeIfAbsent(world, w -> new LinkedHashSet<>()).add(chunkKey);
+    }
+
+    // Loads and tickets every added chunk, spread evenly over the given number of ticks.
+    public void load(int ticks) {
+        if (loader != null) loader.cancel();
+        ArrayDeque<PendingChunk> pending = new ArrayDeque<>();
+        for (Map.Entry<World, Set<Long>> entry : wanted.entrySet()) {
+            Set<Long> held = ticketed.get(entry.getKey());
+            for (long key : entry.getValue()) {
+                if (held == null || !held.contains(key)) pending.add(new PendingChunk(entry.getKey(), key));
+            }
+        }
+        if (pending.isEmpty()) return;
+        final int total = pending.size();
+        final long started = System.currentTimeMillis();
+        loader = Bukkit.getScheduler().runTaskTimer(plugin, new Runnable() {
+            int ticksLeft = Math.max(1, ticks);
+            @Override
+            public void run() {
+                int batch = (pending.size() + ticksLeft - 1) / ticksLeft;
+                ticksLeft = Math.max(1, ticksLeft - 1);
+                for (int i = 0; i < batch && !pending.isEmpty(); i++) {
+                    PendingChunk next = pending.poll();
+                    next.world.addPluginChunkTicket(BlockPos.chunkX(next.key), BlockPos.chunkZ(next.key), plugin);
+                    ticketed.computeIfAbsent(next.world, w -> new LinkedHashSet<>()).add(next.key);
+                }
+                if (pending.isEmpty()) {
+                    loader.cancel();
+                    loader = null;
+                    plugin.getLogger().info("Arena chunks ready: " + total + " chunks loaded in "
+                            + (System.currentTimeMillis() - started) + " ms.");
+                }
+            }
+        }, 1L, 1L);
+    }
+
+    // Drops all tickets (and the chunk set), letting the server unload the arena again.
+    public void release() {
+        if (loader != null) {
+            loader.cancel();
+            loader = null;
+        }
+        int released = 0;
+        for (Map.Entry<World, Set<Long>> entry : ticketed.entrySet()) {
+            for (long key : entry.getValue()) {
+                entry.getKey().removePluginChunkTicket(BlockPos.chunkX(key), BlockPos.chunkZ(key), plugin);
+                released++;
+            }
+        }
+        ticketed.clear();
+        wanted.clear();
+        if (released > 0) plugin.getLogger().info("Released " + released + " arena chunk tickets.");
+    }
+
+    // Chunks currently held by a ticket.
+    public int held() {
+        int count = 0;
+        for (Set<Long> keys : ticketed.values()) count += keys.size();
+        return count;
+    }
+
+    private static class PendingChunk {
+        final World world;
+        final long key;
+
+        PendingChunk(World world, long key) {
+            this.world = world;
+            this.key = key;
+        }
+    }
+}
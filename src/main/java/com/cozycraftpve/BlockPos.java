@@ -0,0 +1,44 @@
+package com.cozycraftpve;
+
+// Packs block and chunk coordinates into a single long, for primitive arrays and hash keys.
+// Block positions use the vanilla layout: 26 bits x, 26 bits z, 12 bits y (signed),
+// which covers the full world border and build height.
+final class BlockPos {
+
+    private BlockPos() {
+    }
+
+    static long pack(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFFL) << 38 | ((long) z & 0x3FFFFFFL) << 12 | ((long) y & 0xFFFL);
+    }
+
+    static int x(long packed) {
+        return (int) (packed >> 38);
+    }
+
+    static int y(long packed) {
+        return (int) (packed << 52 >> 52);
+    }
+
+    static int z(long packed) {
+        return (int) (packed << 26 >> 38);
+    }
+
+    // Chunk coordinates packed as x in the high and z in the low 32 bits.
+    static long chunkKey(int chunkX, int chunkZ) {
+        return (long) chunkX << 32 | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    // Key of the chunk containing the given block.
+    static long chunkKeyAt(int blockX, int blockZ) {
+        return chunkKey(blockX >> 4, blockZ >> 4);
+    }
+
+    static int chunkX(long chunkKey) {
+        return (int) (chunkKey >> 32);
+    }
+
+    static int chunkZ(long chunkKey) {
+        return (int) chunkKey;
+    }
+}
@@ -1,44 +1,69 @@
 package com.cozycraftpve;
 
 import org.bukkit.Bukkit;
-import org.bukkit.Location;
 import org.bukkit.World;
-import org.bukkit.Material;
-import org.bukkit.NamespacedKey;
 import org.bukkit.block.Chest;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
-import org.bukkit.enchantments.Enchantment;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryOpenEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.inventory.meta.PotionMeta;
-import org.bukkit.potion.PotionData;
-import org.bukkit.potion.PotionType;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
 import java.util.*;
+import java.util.logging.Logger;
 
 public class ChestManager implements Listener {
 
     private final JavaPlugin plugin;
+    private final GameRandom random;
     private File chestConfigFile;
     private FileConfiguration chestConfig;
-    private final Set<Location> rolledChests = new HashSet<>();
+    // Loot chests by chunk, with the loot epoch each was last rolled in.
+    private final LootChestRegistry chestIndex;
+    // Layouts rolled on a worker thread for the current loot epoch.
+    private final ChestPreRoller preRoller;
+    // Chunk resends for chest changes, at most once per chunk per tick.
+    private final ChunkRefreshBatcher refreshes;
+    // Resend the chunk after a fill even though only the inventory changed (chest.refresh-chunks).
+    private boolean refreshAfterFill = false;
+    private final Metrics.Timer openTimer;
+    private final Metrics.Timer fillTimer;
+    private final Metrics.Timer resetTimer;
+    private final Metrics.Counter prerolledFills;
+    private final Metrics.Counter onDemandFills;
+    // Per-chest events go to the event log rather than the console.
+    private final GameEventLog.Category chestEvents;
+
+    // Slots in a single chest's block inventory; the size layouts are pre-rolled for.
+    private static final int CHEST_SLOTS = 27;
 
     private World chestWorld;
     // Map tier name (common, uncommon, etc.) to Tier object.
     private final Map<String, Tier> tiers = new HashMap<>();
-    // Tier chances (weights) defined in config.
-    private final Map<String, Integer> tierChances = new HashMap<>();
+    // Tiers that can be rolled, in config order, and an alias table over their chances.
+    private Tier[] rollableTiers = new Tier[0];
+    private AliasTable tierTable;
 
-    public ChestManager(JavaPlugin plugin) {
+    public ChestManager(JavaPlugin plugin, GameRandom random, Metrics metrics, GameEventLog events) {
         this.plugin = plugin;
+        this.random = random;
+        this.chestEvents = events.category("chest");
+        this.chestIndex = new LootChestRegistry(plugin);
+        this.preRoller = new ChestPreRoller(plugin);
+        this.refreshes = new ChunkRefreshBatcher(plugin, metrics);
+        this.openTimer = metrics.timer("loot_chest_open", "Time spent handling a loot chest being opened.");
+        this.fillTimer = metrics.timer("loot_chest_fill", "Time spent filling a loot chest.");
+        this.resetTimer = metrics.timer("loot_reset", "Time spent resetting all loot chests.");
+        this.prerolledFills = metrics.counter("loot_chest_fills_prerolled", "Loot chests filled from a pre-rolled layout.");
+        this.onDemandFills = metrics.counter("loot_chest_fills_on_demand", "Loot chests rolled when opened.");
+        metrics.gauge("loot_chests_indexed", "Loot chests in the chest index.", chestIndex::size);
+        metrics.gauge("loot_chests_prerolled", "Pre-rolled loot chest layouts not yet used.", preRoller::ready);
         loadChestConfig();
         plugin.getServer().getPluginManager().registerEvents(this, plugin);
     }
@@ -58,16 +83,8 @@ public class ChestManager implements Listener {
             plugin.getLogger().warning("Chest world " + worldName + " not found! Defaulting to first available world.");
             chestWorld = Bukkit.getWorlds().get(0);
         }
-
-        // Load tier chances.
-        tierChances.clear();
-        ConfigurationSection chanceSection = chestConfig.getConfigurationSection("chest.tier-chances");
-        if (chanceSection != null) {
-            for (String key : chanceSection.getKeys(false)) {
-                int chance = chanceSection.getInt(key);
-                tierChances.put(key.toLowerCase(), chance);
-            }
-        }
+        chestIndex.setWorld(chestWorld);
+        refreshAfterFill = chestConfig.getBoolean("chest.refresh-chunks", false);
 
         // Load tiers.
         tiers.clear();
@@ -77,30 +94,55 @@ public class ChestManager implements Listener {
                 ConfigurationSection tierSec = tiersSection.getConfigurationSection(key);
                 int minItems = tierSec.getInt("min-items", 1);
                 int maxItems = tierSec.getInt("max-items", 3);
-                List<LootEntry> lootList = new ArrayList<>();
-                List<Map<?, ?>> lootSection = tierSec.getMapList("loot");
-                for (Map<?, ?> lootData : lootSection) {
-                    String itemString = (String) lootData.get("item");
-                    int weight = Integer.parseInt(lootData.get("weight").toString());
-                    int amount = Integer.parseInt(lootData.get("amount").toString());
-                    Map<String, Integer> enchantments = null;
-                    if (lootData.containsKey("enchantments")) {
-                        enchantments = new HashMap<>();
-                        Map<?, ?> enchants = (Map<?, ?>) lootData.get("enchantments");
-                        for (Object enchantKey : enchants.keySet()) {
-                            String enchName = enchantKey.toString();
-                            int level = Integer.parseInt(enchants.get(enchantKey).toString());
-                            enchantments.put(enchName, level);
-                        }
-                    }
-        
-                    lootList.add(new LootEntry(itemString, weight, amount, enchantments));
-                }
-                Tier tier = new Tier(key.toLowerCase(), minItems, maxItems, lootList);
+                LootTable lootTable = LootTable.compile(tierSec.getMapList("loot"), plugin.getLogger(), "chest.tiers." + key);
+                if (lootTable == null) continue;
+                Tier tier = new Tier(key.toLowerCase(), minItems, maxItems, lootTable);
                 tiers.put(key.toLowerCase(), tier);
             }
         }
+
+        // Compile tier chances (weights) into an alias table over the tiers that exist.
+        List<Tier> chanceTiers = new ArrayList<>();
+        List<Integer> chances = new ArrayList<>();
+        ConfigurationSection chanceSection = chestConfig.getConfigurationSection("chest.tier-chances");
+        if (chanceSection != null) {
+            for (String key : chanceSection.getKeys(false)) {
+                int chance = chanceSection.getInt(key);
+                Tier tier = tiers.get(key.toLowerCase());
+                if (tier == null) {
+                    plugin.getLogger().warning("Tier chance given for unknown tier: " + key);
+                    continue;
+                }
+                if (chance <= 0) continue;
+                chanceTiers.add(tier);
+                chances.add(chance);
+            }
+        }
+        if (chanceTiers.isEmpty() && !tiers.isEmpty()) {
+            plugin.getLogger().warning("No usable chest.tier-chances; every tier will be equally likely.");
+            chanceTiers.addAll(tiers.values());
+            for (int i = 0; i < chanceTiers.size(); i++) chances.add(1);
+        }
+        rollableTiers = chanceTiers.toArray(new Tier[0]);
+        int[] weights = new int[chances.size()];
+        for (int i = 0; i < weights.length; i++) weights[i] = chances.get(i);
+        tierTable = weights.length == 0 ? null : new AliasTable(weights);
         plugin.getLogger().info("Chest config reloaded. Loaded tiers: " + tiers.keySet());
+        // Layouts rolled from the old tiers are stale.
+        preRoller.discard();
+        prerollLoot();
+    }
+
+    // Loot chests of the chest world, by chunk.
+    public LootChestRegistry getChestIndex() {
+        return chestIndex;
+    }
+
+    // Rebuilds the loot chest index from the loaded chunks of the chest world.
+    public int rescanChests() {
+        int found = chestIndex.rescan();
+        plugin.getLogger().info("Indexed " + found + " loot chests in " + chestWorld.getName() + ".");
+        return found;
     }
 
     // Reload the entire chest configuration (for /reloadchestconfig)
@@ -108,158 +150,98 @@ public class ChestManager implements Listener {
         loadChestConfig();
     }
 
-    // Reload loot (in this system, loot is part of the chest config)
+    // Resets all loot chests: starts a new loot epoch, so each chest is re-rolled the next
+    // time it is opened. Constant time; use /reloadchestconfig to re-read config_chest.yml.
     public void reloadLoot() {
-        loadChestConfig();  // Reloads tiers and loot settings
-        rolledChests.clear();
-        clearCurrentLootChests();
-        plugin.getLogger().info("Loot configuration reloaded and rolled chests cleared.");
-    }
-
-    // Randomly choose a tier based on configured tier chances.
-    private Tier chooseTier() {
-        int totalWeight = 0;
-        for (int weight : tierChances.values()) {
-            totalWeight += weight;
-        }
-        int random = new Random().nextInt(totalWeight);
-        for (Map.Entry<String, Integer> entry : tierChances.entrySet()) {
-            if (random < entry.getValue()) {
-                Tier tier = tiers.get(entry.getKey());
-                if (tier != null) return tier;
-            }
-            random -= entry.getValue();
-        }
-        // Fallback
-        return tiers.values().iterator().next();
+        long start = System.nanoTime();
+        chestIndex.bumpEpoch();
+        plugin.getLogger().info("Loot reset (epoch " + chestIndex.epoch() + ").");
+        prerollLoot();
+        resetTimer.since(start);
     }
 
-    // Randomly select a loot entry using weighted random.
-    private LootEntry getWeightedRandomLoot(List<LootEntry> lootList) {
-        int totalWeight = 0;
-        for (LootEntry entry : lootList) {
-            totalWeight += entry.weight;
-        }
-        int random = new Random().nextInt(totalWeight);
-        for (LootEntry entry : lootList) {
-            if (random < entry.weight) {
-                return entry;
-            }
-            random -= entry.weight;
-        }
-        return null;
-    }
-    
-    public void clearCurrentLootChests() {
-        if (chestWorld == null) {
-            plugin.getLogger().warning("Chest world is null; cannot clear loot chests.");
-            return;
-        }
-        int cleared = 0;
-        for (org.bukkit.Chunk chunk : chestWorld.getLoadedChunks()) {
-            for (org.bukkit.block.BlockState state : chunk.getTileEntities()) {
-                if (state instanceof org.bukkit.block.Chest) {
-                    org.bukkit.block.Chest chest = (org.bukkit.block.Chest) state;
-                    String customName = chest.getCustomName();
-                    if (customName != null && customName.trim().equalsIgnoreCase("chest_loot")) {
-                        // Clear the chest inventory.
-                        chest.getBlockInventory().clear();
-                        // Force a chunk refresh so clients see the empty chest.
-                        int chunkX = chest.getLocation().getChunk().getX();
-                        int chunkZ = chest.getLocation().getChunk().getZ();
-                        chest.getWorld().refreshChunk(chunkX, chunkZ);
-                        cleared++;
-                        plugin.getLogger().info("Cleared loot chest at " + chest.getLocation());
-                    }
-                }
-            }
-        }
-        plugin.getLogger().info("Total loot chests cleared: " + cleared);
+    // Starts rolling layouts for every indexed chest in the current epoch on a worker thread.
+    // The worker gets its own stream split off chestLoot, so a seed still replays the same loot.
+    private void prerollLoot() {
+        // Both are replaced, never mutated, on config reload, so the worker can keep these.
+        final Tier[] tiersNow = rollableTiers;
+        final AliasTable tableNow = tierTable;
+        if (tableNow == null) return;
+        final Logger logger = plugin.getLogger();
+        preRoller.preroll(chestIndex.positions(), chestIndex.epoch(), random.chestLoot().split(),
+                r -> rollContents(tiersNow, tableNow, CHEST_SLOTS, r, logger));
     }
-    
 
-    // Fills the given chest with loot.
-    private void fillChest(Chest chest) {
-        plugin.getLogger().info("Filling chest at " + chest.getLocation());
-        
+    // Rolls a tier, an item count and the items, and lays them out over random slots.
+    // Returns the finished contents, or null if there is no tier to roll. Touches no world
+    // state, so it is safe on a worker thread with a random stream of its own.
+    private static ItemStack[] rollContents(Tier[] tiers, AliasTable tierTable, int size,
+                                            SplittableRandom random, Logger logger) {
+        if (tierTable == null) return null;
         // Choose a tier based on weighted chance.
-        Tier tier = chooseTier();
-        if (tier == null) {
-            plugin.getLogger().warning("No tier selected, aborting loot fill.");
-            return;
-        }
-        plugin.getLogger().info("Chosen tier: " + tier.name);
-        
+        Tier tier = tiers[tierTable.sample(random)];
+
         // Determine number of items to fill (between minItems and maxItems).
         int count = tier.minItems;
         if (tier.maxItems > tier.minItems) {
-            count = tier.minItems + new Random().nextInt(tier.maxItems - tier.minItems + 1);
+            count = tier.minItems + random.nextInt(tier.maxItems - tier.minItems + 1);
         }
-        plugin.getLogger().info("Filling chest with " + count + " items.");
-        
-        // Get the chest inventory and clear it.
-        org.bukkit.inventory.Inventory inv = chest.getBlockInventory();
-        inv.clear();
-        
-        // Create a list of slot indices and shuffle them for random placement.
-        List<Integer> slots = new ArrayList<>();
-        for (int i = 0; i < inv.getSize(); i++) {
-            slots.add(i);
+
+        // Pick random slots with a partial Fisher-Yates shuffle (only the first count are needed).
+        ItemStack[] contents = new ItemStack[size];
+        int[] slots = new int[size];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = i;
         }
-        Collections.shuffle(slots);
-        
-        // Fill the chest with loot.
-        for (int i = 0; i < count && i < slots.size(); i++) {
-            LootEntry loot = getWeightedRandomLoot(tier.lootList);
+        for (int i = 0; i < count && i < slots.length; i++) {
+            int pick = i + random.nextInt(slots.length - i);
+            int slot = slots[pick];
+            slots[pick] = slots[i];
+            slots[i] = slot;
+            LootEntry loot = tier.lootTable.roll(random);
             if (loot != null) {
-                plugin.getLogger().info("Selected loot: " + loot.itemString + " (amount " + loot.amount + ")");
-                ItemStack drop = parseItemStack(loot.itemString, loot.amount);
-                if (drop != null) {
-                    // If there are enchantments configured for this loot entry, apply them.
-                    if (loot.enchantments != null) {
-                        drop = applyEnchantments(drop, loot.enchantments);
-                    }
-                    inv.setItem(slots.get(i), drop);
-                    plugin.getLogger().info("Placed " + drop.getType() + " in slot " + slots.get(i));
-                } else {
-                    plugin.getLogger().warning("parseItemStack returned null for: " + loot.itemString);
-                }
+                contents[slot] = loot.newItem();
             } else {
-                plugin.getLogger().warning("No loot entry selected for tier " + tier.name);
+                logger.warning("No loot entry selected for tier " + tier.name);
             }
         }
-        
-        // Force an inventory update.
-        ItemStack[] newContents = inv.getContents();
-        inv.setContents(newContents);
-        
-        // Set the chest's custom name.
-        chest.setCustomName("chest_loot");
-        
-        // Force a chunk refresh.
-        int chunkX = chest.getLocation().getChunk().getX();
-        int chunkZ = chest.getLocation().getChunk().getZ();
-        chest.getWorld().refreshChunk(chunkX, chunkZ);
-        
-        plugin.getLogger().info("Finished filling chest at " + chest.getLocation());
+        return contents;
     }
 
-    private ItemStack applyEnchantments(ItemStack item, Map<String, Integer> enchantments) {
-        for (Map.Entry<String, Integer> enchantEntry : enchantments.entrySet()) {
-            // Using the modern API: convert the enchantment name to a NamespacedKey.
-            NamespacedKey key = NamespacedKey.minecraft(enchantEntry.getKey().toLowerCase());
-            Enchantment enchant = Enchantment.getByKey(key);
-            if (enchant != null) {
-                item.addUnsafeEnchantment(enchant, enchantEntry.getValue());
-            } else {
-                plugin.getLogger().warning("Invalid enchantment key: " + enchantEntry.getKey());
+    // Fills the given chest with loot: the layout pre-rolled for it if there is one, otherwise
+    // one rolled now. Either way the inventory is replaced with a single setContents call.
+    private void fillChest(Chest chest, long pos) {
+        org.bukkit.inventory.Inventory inv = chest.getBlockInventory();
+        ItemStack[] contents = inv.getSize() == CHEST_SLOTS ? preRoller.take(pos, chestIndex.epoch()) : null;
+        boolean prerolled = contents != null;
+        if (contents == null) {
+            contents = rollContents(rollableTiers, tierTable, inv.getSize(), random.chestLoot(), plugin.getLogger());
+        }
+        if (contents == null) {
+            plugin.getLogger().warning("No tier selected, aborting loot fill.");
+            return;
+        }
+        (prerolled ? prerolledFills : onDemandFills).inc();
+        inv.setContents(contents);
+        refreshChest(chest);
+
+        if (chestEvents.isEnabled(GameEventLog.Level.INFO)) {
+            int items = 0;
+            for (ItemStack item : contents) {
+                if (item != null) items++;
             }
+            chestEvents.info("fill", "x", chest.getX(), "y", chest.getY(), "z", chest.getZ(),
+                    "source", prerolled ? "prerolled" : "on_demand", "items", items, "epoch", chestIndex.epoch());
         }
-        return item;
     }
-    
-    
-    
+
+    // A fill only changes the inventory, which reaches viewers through the container itself, so
+    // the chest's chunk is resent only when chest.refresh-chunks asks for it after every fill.
+    private void refreshChest(Chest chest) {
+        if (!refreshAfterFill) return;
+        refreshes.mark(chest.getWorld(), chest.getX() >> 4, chest.getZ() >> 4);
+    }
+
     // When a player opens a chest, if it's a loot chest, fill it with loot.
     @EventHandler
     public void onChestOpen(org.bukkit.event.inventory.InventoryOpenEvent event) {
@@ -273,120 +255,42 @@ public class ChestManager implements Listener {
         }
         if (chest == null) return;
         
-        // Only process chests that have the custom name "chest_loot"
-        if (chest.getCustomName() != null && chest.getCustomName().equalsIgnoreCase("chest_loot")) {
-            // If this chest has already been rolled, do nothing.
-            if (rolledChests.contains(chest.getLocation())) {
-                plugin.getLogger().info("Chest at " + chest.getLocation() + " has already been rolled; skipping re-roll.");
-                return;
-            }
-            // Otherwise, if the chest is empty, fill it and mark it as rolled.
-            if (isChestEmpty(chest)) {
-                plugin.getLogger().info("Chest at " + chest.getLocation() + " is empty. Filling with loot...");
-                fillChest(chest);
-                rolledChests.add(chest.getLocation());
-                plugin.getLogger().info("Chest at " + chest.getLocation() + " marked as rolled.");
-            } else {
-                plugin.getLogger().info("Chest at " + chest.getLocation() + " is not empty.");
-            }
-        }
+        // Only process chests in the chest world that have the custom name "chest_loot"
+        if (chest.getWorld() != chestWorld || !LootChestRegistry.isLootChest(chest)) return;
+        long start = System.nanoTime();
+        openLootChest(chest);
+        openTimer.since(start);
     }
-    
-    
-    
 
-    private boolean isChestEmpty(Chest chest) {
-        for (ItemStack item : chest.getBlockInventory().getContents()) {
-            if (item != null) return false;
+    private void openLootChest(Chest chest) {
+        long pos = BlockPos.pack(chest.getX(), chest.getY(), chest.getZ());
+        // Index chests the scan has not seen yet.
+        if (chestIndex.add(pos)) {
+            chestEvents.info("indexed", "x", chest.getX(), "y", chest.getY(), "z", chest.getZ());
         }
-        return true;
-    }
-
-    // Helper: parse an ItemStack from a string with NBT-like data.
-    public static ItemStack parseItemStack(String itemString, int amount) {
-        if (itemString.contains("{")) {
-            int braceIndex = itemString.indexOf("{");
-            String base = itemString.substring(0, braceIndex).trim().toUpperCase();
-            String dataPart = itemString.substring(braceIndex + 1, itemString.length() - 1).trim(); // e.g., Potion:regeneration2
-            Material mat = Material.getMaterial(base);
-            if (mat == null) {
-                Bukkit.getLogger().warning("Invalid material in chest loot config: " + base);
-                return null;
-            }
-            ItemStack item = new ItemStack(mat, amount);
-            if (mat == Material.SPLASH_POTION && dataPart.startsWith("Potion:")) {
-                String potionInfo = dataPart.substring("Potion:".length()).toLowerCase();
-                boolean upgraded = false;
-                if (potionInfo.endsWith("2")) {
-                    upgraded = true;
-                    potionInfo = potionInfo.substring(0, potionInfo.length() - 1);
-                } else if (potionInfo.endsWith("1")) {
-                    potionInfo = potionInfo.substring(0, potionInfo.length() - 1);
-                }
-                PotionType potionType = null;
-                switch (potionInfo) {
-                    case "regeneration":
-                        potionType = PotionType.REGENERATION;
-                        break;
-                    case "swiftness":
-                        potionType = PotionType.SWIFTNESS;
-                        break;
-                    case "strength":
-                        potionType = PotionType.STRENGTH;
-                        break;
-                    case "healing":
-                        potionType = PotionType.HEALING;
-                        break;
-                    default:
-                        Bukkit.getLogger().warning("Unknown potion type in chest loot config: " + potionInfo);
-                        break;
-                }
-                if (potionType != null) {
-                    PotionMeta meta = (PotionMeta) item.getItemMeta();
-                    if (meta != null) {
-                        meta.setBasePotionData(new PotionData(potionType, false, upgraded));
-                        item.setItemMeta(meta);
-                    }
-                }
-            }
-            return item;
-        } else {
-            Material material = Material.getMaterial(itemString.toUpperCase());
-            if (material == null) {
-                Bukkit.getLogger().warning("Invalid material in chest loot config: " + itemString);
-                return null;
-            }
-            return new ItemStack(material, amount);
+        // If this chest has already been rolled since the last loot reset, do nothing.
+        if (chestIndex.isRolled(pos)) {
+            chestEvents.debug("already_rolled", "x", chest.getX(), "y", chest.getY(), "z", chest.getZ());
+            return;
         }
+        // Otherwise replace whatever is left from an earlier round with fresh loot.
+        long fillStart = System.nanoTime();
+        fillChest(chest, pos);
+        fillTimer.since(fillStart);
+        chestIndex.markRolled(pos);
     }
-    
 
     // Inner classes
-    private static class LootEntry {
-        String itemString;
-        int weight;
-        int amount;
-        Map<String, Integer> enchantments; // New: key = enchantment name, value = level
-    
-        public LootEntry(String itemString, int weight, int amount, Map<String, Integer> enchantments) {
-            this.itemString = itemString;
-            this.weight = weight;
-            this.amount = amount;
-            this.enchantments = enchantments;
-        }
-    }
-    
-
     private static class Tier {
         String name;
         int minItems;
         int maxItems;
-        List<LootEntry> lootList;
-        public Tier(String name, int minItems, int maxItems, List<LootEntry> lootList) {
+        LootTable lootTable;
+        public Tier(String name, int minItems, int maxItems, LootTable lootTable) {
             this.name = name;
             this.minItems = minItems;
             this.maxItems = maxItems;
-            this.lootList = lootList;
+            this.lootTable = lootTable;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.cozycraftpve;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+import org.bukkit.Bukkit;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.java.JavaPlugin;
+
+// Finished chest layouts, rolled ahead of time so opening a loot chest only has to apply one.
+// preroll() rolls a layout for every given chest on a worker thread, with a random stream
+// split off on the main thread, and swaps the pool in on the main thread once done. A pool
+// belongs to one loot epoch; take() hands out each layout once and returns null when the
+// chest has none, in which case the caller rolls on demand. Call from the main thread only.
+final class ChestPreRoller {
+
+    private final JavaPlugin plugin;
+    private Map<Long, ItemStack[]> pool = new HashMap<>();
+    private int poolEpoch = -1;
+    private int generation = 0;
+
+    ChestPreRoller(JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    // Replaces the pool with layouts for the given chests and epoch. roll must not touch the
+    // world: it runs off the main thread and may return null for "nothing to roll".
+    void preroll(long[] positions, int epoch, SplittableRandom random, Function<SplittableRandom, ItemStack[]> roll) {
+        final int build = ++generation;
+        final long[] chests = positions.clone();
+        // Sorted so the same seed gives every chest the same layout, whatever the index order.
+        Arrays.sort(chests);
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            long start = System.nanoTime();
+            Map<Long, ItemStack[]> rolled = new HashMap<>(chests.length * 2);
+            for (long pos : chests) {
+                ItemStack[] contents = roll.apply(random);
+                if (contents != null) rolled.put(pos, contents);
+            }
+            long micros = (System.nanoTime() - start) / 1000;
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (build != generation) return; // Discarded, or a newer pre-roll was started.
+                pool = rolled;
+                poolEpoch = epoch;
+                plugin.getLogger().info("Pre-rolled " + rolled.size() + " loot chests for epoch " + epoch + " in " + micros + "us.");
+            });
+        });
+    }
+
+    // The layout pre-rolled for the chest in this epoch, removed from the pool; null if none.
+    ItemStack[] take(long pos, int epoch) {
+        if (epoch != poolEpoch) return null;
+        return pool.remove(pos);
+    }
+
+    // Drops the pool and any pre-roll still running (e.g. the loot config changed).
+    void discard() {
+        generation++;
+        pool = new HashMap<>();
+        poolEpoch = -1;
+    }
+
+    int ready() {
+        return pool.size();
+    }
+}
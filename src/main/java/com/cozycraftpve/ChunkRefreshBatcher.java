@@ -0,0 +1,56 @@
+package com.cozycraftpve;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+
+// Coalesces chunk refreshes. mark() only records the chunk as dirty; one task on the next
+// tick resends each dirty chunk once, however many times it was marked, so refreshes are
+// deferred by one tick. No task runs while nothing is dirty. Main thread only.
+final class ChunkRefreshBatcher {
+
+    private final JavaPlugin plugin;
+    private final Map<World, Set<Long>> dirty = new HashMap<>();
+    private boolean flushScheduled = false;
+    private final Metrics.Counter marked;
+    private final Metrics.Counter sent;
+
+    ChunkRefreshBatcher(JavaPlugin plugin, Metrics metrics) {
+        this.plugin = plugin;
+        this.marked = metrics.counter("chunk_refreshes_requested", "Chunk refreshes asked for by chest changes.");
+        this.sent = metrics.counter("chunk_refreshes_sent", "Chunks resent to clients after batching.");
+    }
+
+    void mark(World world, int chunkX, int chunkZ) {
+        marked.inc();
+        Set<Long> chunks = dirty.get(world);
+        if (chunks == null) {
+            chunks = new LinkedHashSet<>();
+            dirty.put(world, chunks);
+        }
+        chunks.add(BlockPos.chunkKey(chunkX, chunkZ));
+        if (!flushScheduled) {
+            flushScheduled = true;
+            Bukkit.getScheduler().runTask(plugin, this::flush);
+        }
+    }
+
+    // Resends every dirty chunk now.
+    void flush() {
+        flushScheduled = false;
+        for (Map.Entry<World, Set<Long>> entry : dirty.entrySet()) {
+            World world = entry.getKey();
+            for (long key : entry.getValue()) {
+                if (!world.isChunkLoaded(BlockPos.chunkX(key), BlockPos.chunkZ(key))) continue;
+                world.refreshChunk(BlockPos.chunkX(key), BlockPos.chunkZ(key));
+                sent.inc();
+            }
+        }
+        dirty.clear();
+    }
+}
@@ -0,0 +1,366 @@
+package com.cozycraftpve;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+// Structured game events (chest fills, spawn batches, ...) written as JSON lines to
+// events/events.jsonl, rotated by size. Callers only check their category's level and sample
+// rate and push the raw event into a bounded lock-free ring; a background thread formats and
+// writes it. When the ring is full the event is dropped and counted rather than blocking the
+// tick. Sampling uses ThreadLocalRandom so it never shifts the seeded game streams.
+public class GameEventLog {
+
+    public enum Level { DEBUG, INFO, WARN, OFF }
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Logger logger;
+    private final File folder;
+    private final Map<String, Category> categories = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private volatile Ring ring = new Ring(8192);
+    private volatile Level defaultLevel = Level.INFO;
+    private volatile boolean running = false;
+    private Thread writerThread;
+    private long maxFileBytes = 10L * 1024 * 1024;
+    private int maxFiles = 5;
+
+    // Owned by the writer thread once started.
+    private Writer out;
+    private long fileBytes;
+    private long droppedReported;
+
+    public GameEventLog(File dataFolder, Logger logger) {
+        this.logger = logger;
+        this.folder = new File(dataFolder, "events");
+    }
+
+    // Applies the "events" config section. Call before start(); levels and sampling may also be
+    // changed later (e.g. on a config reload).
+    public void configure(ConfigurationSection section) {
+        if (section == null) return;
+        if (!running) {
+            ring = new Ring(section.getInt("buffer-size", 8192));
+            maxFileBytes = Math.max(1, section.getLong("max-file-mb", 10)) * 1024 * 1024;
+            maxFiles = Math.max(1, section.getInt("max-files", 5));
+        }
+        ConfigurationSection levels = section.getConfigurationSection("levels");
+        defaultLevel = parseLevel(levels == null ? null : levels.getString("default"), Level.INFO);
+        for (Category category : categories.values()) {
+            category.level = defaultLevel;
+            category.sampleRate = 1.0;
+        }
+        if (levels != null) {
+            for (String name : levels.getKeys(false)) {
+                if (name.equals("default")) continue;
+                category(name).level = parseLevel(levels.getString(name), defaultLevel);
+            }
+        }
+        ConfigurationSection sampling = section.getConfigurationSection("sampling");
+        if (sampling != null) {
+            for (String name : sampling.getKeys(false)) {
+                category(name).sampleRate = Math.max(0.0, Math.min(1.0, sampling.getDouble(name, 1.0)));
+            }
+        }
+    }
+
+    private Level parseLevel(String value, Level fallback) {
+        if (value == null) return fallback;
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            logger.warning("Unknown event log level '" + value + "'; using " + fallback.name().toLowerCase(Locale.ROOT) + ".");
+            return fallback;
+        }
+    }
+
+    // The category with the given name; look it up once and keep it.
+    public Category category(String name) {
+        return categories.computeIfAbsent(name.toLowerCase(Locale.ROOT), key -> new Category(this, key, defaultLevel));
+    }
+
+    // Events dropped because the ring was full.
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        writerThread = new Thread(this::runWriter, "MobRoyale-EventLog");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    // Writes out what is buffered and stops the writer, waiting for it to finish.
+    public void close() {
+        running = false;
+        if (writerThread == null) return;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writerThread = null;
+    }
+
+    private void offer(Event event) {
+        if (!ring.offer(event)) dropped.increment();
+    }
+
+    private void runWriter() {
+        StringBuilder line = new StringBuilder(256);
+        while (true) {
+            boolean stopping = !running;
+            int written = 0;
+            try {
+                Event event;
+                while ((event = ring.poll()) != null) {
+                    line.setLength(0);
+                    write(appendJson(line, event));
+                    written++;
+                }
+                long drops = dropped.sum();
+                if (drops > droppedReported) {
+                    line.setLength(0);
+                    write(appendJson(line, new Event(System.currentTimeMillis(), Level.WARN, "events", "dropped",
+                            new Object[] {"count", drops - droppedReported, "total", drops})));
+                    droppedReported = drops;
+                    written++;
+                }
+                if (written > 0 && out != null) out.flush();
+            } catch (IOException e) {
+                logger.warning("Could not write the event log: " + e.getMessage());
+                closeFile();
+            }
+            if (stopping) break;
+            if (written == 0) LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        closeFile();
+    }
+
+    private void write(CharSequence line) throws IOException {
+        if (out == null) openFile();
+        if (fileBytes + line.length() > maxFileBytes && fileBytes > 0) {
+            closeFile();
+            rotate();
+            openFile();
+        }
+        out.append(line);
+        // Events are almost all ASCII, so chars are a close enough measure of bytes.
+        fileBytes += line.length();
+    }
+
+    private void openFile() throws IOException {
+        if (!folder.exists()) folder.mkdirs();
+        File file = new File(folder, "events.jsonl");
+        fileBytes = file.length();
+        out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+    }
+
+    private void closeFile() {
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException e) {
+            logger.warning("Could not close the event log: " + e.getMessage());
+        }
+        out = null;
+    }
+
+    // events.jsonl -> events.1.jsonl -> ... -> events.<maxFiles>.jsonl, dropping the oldest.
+    private void rotate() {
+        new File(folder, "events." + maxFiles + ".jsonl").delete();
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            File from = new File(folder, "events." + i + ".jsonl");
+            if (from.exists()) from.renameTo(new File(folder, "events." + (i + 1) + ".jsonl"));
+        }
+        new File(folder, "events.jsonl").renameTo(new File(folder, "events.1.jsonl"));
+    }
+
+    // One event as a JSON object followed by a newline. Fields are key/value pairs; numbers and
+    // booleans are written as-is, anything else as a string.
+    static StringBuilder appendJson(StringBuilder line, Event event) {
+        line.append("{\"time\":").append(event.time)
+                .append(",\"level\":\"").append(event.level.name().toLowerCase(Locale.ROOT))
+                .append("\",\"category\":");
+        appendString(line, event.category);
+        line.append(",\"event\":");
+        appendString(line, event.name);
+        Object[] fields = event.fields;
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            line.append(',');
+            appendString(line, String.valueOf(fields[i]));
+            line.append(':');
+            Object value = fields[i + 1];
+            if (value instanceof Number || value instanceof Boolean) {
+                line.append(value);
+            } else if (value == null) {
+                line.append("null");
+            } else {
+                appendString(line, value.toString());
+            }
+        }
+        return line.append("}\n");
+    }
+
+    private static void appendString(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+
+    // A named stream of events with its own level and sample rate.
+    public static final class Category {
+        private final GameEventLog log;
+        final String name;
+        volatile Level level;
+        volatile double sampleRate = 1.0;
+
+        Category(GameEventLog log, String name, Level level) {
+            this.log = log;
+            this.name = name;
+            this.level = level;
+        }
+
+        // Cheap check for callers that would do work just to build the fields.
+        public boolean isEnabled(Level level) {
+            return level != Level.OFF && level.ordinal() >= this.level.ordinal();
+        }
+
+        // Queues an event if its level is enabled and it survives sampling. Fields are
+        // alternating keys and values; pass primitives or strings, not live game objects,
+        // since they are formatted on the writer thread.
+        public void log(Level level, String event, Object... fields) {
+            if (!isEnabled(level)) return;
+            double rate = sampleRate;
+            if (rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= rate) return;
+            log.offer(new Event(System.currentTimeMillis(), level, name, event, fields));
+        }
+
+        public void debug(String event, Object... fields) {
+            log(Level.DEBUG, event, fields);
+        }
+
+        public void info(String event, Object... fields) {
+            log(Level.INFO, event, fields);
+        }
+
+        public void warn(String event, Object... fields) {
+            log(Level.WARN, event, fields);
+        }
+    }
+
+    static final class Event {
+        final long time;
+        final Level level;
+        final String category;
+        final String name;
+        final Object[] fields;
+
+        Event(long time, Level level, String category, String name, Object[] fields) {
+            this.time = time;
+            this.level = level;
+            this.category = category;
+            this.name = name;
+            this.fields = fields;
+        }
+    }
+
+    // Bounded multi-producer, single-consumer ring (Vyukov's sequence-numbered array queue).
+    // Each slot's sequence says whose turn it is: equal to the producer position when free,
+    // one past it once filled. offer() never blocks and fails when the ring is full.
+    static final class Ring {
+        private final Object[] slots;
+        private final AtomicLongArray sequences;
+        private final int mask;
+        private final AtomicLong tail = new AtomicLong();
+        private long head = 0; // Consumer only.
+
+        Ring(int capacity) {
+            int size = Integer.highestOneBit(Math.max(2, Math.min(capacity, 1 << 20)) * 2 - 1);
+            slots = new Object[size];
+            sequences = new AtomicLongArray(size);
+            mask = size - 1;
+            for (int i = 0; i < size; i++) sequences.set(i, i);
+        }
+
+        int capacity() {
+            return slots.length;
+        }
+
+        boolean offer(Event event) {
+            long pos = tail.get();
+            while (true) {
+                int index = (int) (pos & mask);
+                long diff = sequences.get(index) - pos;
+                if (diff == 0) {
+                    if (tail.compareAndSet(pos, pos + 1)) {
+                        slots[index] = event;
+                        // Publishes the slot write to the consumer.
+                        sequences.lazySet(index, pos + 1);
+                        return true;
+                    }
+                    pos = tail.get();
+                } else if (diff < 0) {
+                    return false; // Full: the consumer has not freed this slot yet.
+                } else {
+                    pos = tail.get();
+                }
+            }
+        }
+
+        Event poll() {
+            int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1) return null;
+            Event event = (Event) slots[index];
+            slots[index] = null;
+            sequences.lazySet(index, head + slots.length);
+            head++;
+            return event;
+        }
+    }
+}
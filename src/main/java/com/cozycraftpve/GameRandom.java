@@ -0,0 +1,52 @@
+package com.cozycraftpve;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Per-game randomness. Every game has a seed; each subsystem draws from its own
+// SplittableRandom stream split off that seed, so one subsystem's draws never shift
+// another's and a game can be replayed with /startgame <seed>. Streams are not
+// thread-safe: use them on the main thread, or split() a child for other threads.
+public class GameRandom {
+
+    private long seed;
+    private SplittableRandom spawns;
+    private SplittableRandom mobLoot;
+    private SplittableRandom chestLoot;
+
+    public GameRandom() {
+        reseed(newSeed());
+    }
+
+    // Restarts every stream from the given seed.
+    public void reseed(long seed) {
+        this.seed = seed;
+        SplittableRandom root = new SplittableRandom(seed);
+        spawns = root.split();
+        mobLoot = root.split();
+        chestLoot = root.split();
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    // Spawn positions.
+    public SplittableRandom spawns() {
+        return spawns;
+    }
+
+    // Mob drop rolls.
+    public SplittableRandom mobLoot() {
+        return mobLoot;
+    }
+
+    // Chest tiers, item counts, slots and loot.
+    public SplittableRandom chestLoot() {
+        return chestLoot;
+    }
+
+    public static long newSeed() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+}
@@ -0,0 +1,120 @@
+package com.cozycraftpve;
+
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.PotionMeta;
+import org.bukkit.potion.PotionData;
+import org.bukkit.potion.PotionType;
+
+// Resolves loot item strings into ItemStack templates once, at config load.
+// Supported forms are a plain material ("diamond_sword") and a splash potion with
+// data ("splash_potion{Potion:regeneration2}", where a trailing 2 means level II).
+final class ItemTemplates {
+
+    private ItemTemplates() {
+    }
+
+    // Builds a validated template with potion data and enchantments applied.
+    // Throws IllegalArgumentException if the material is unknown; unknown potion
+    // types and enchantments are reported once here and left off the template.
+    static ItemStack create(String itemString, int amount, Map<String, Integer> enchantments,
+                            Logger logger, String context) {
+        Spec spec = parse(itemString);
+        if (spec.unknownPotion != null) {
+            logger.warning("Unknown potion type in " + context + ": " + spec.unknownPotion);
+        }
+        ItemStack item = new ItemStack(spec.material, amount);
+
+        if (spec.potion != null) {
+            PotionMeta meta = (PotionMeta) item.getItemMeta();
+            if (meta != null) {
+                meta.setBasePotionData(new PotionData(spec.potion, false, spec.upgraded));
+                item.setItemMeta(meta);
+            }
+        }
+
+        if (enchantments != null) {
+            for (Map.Entry<String, Integer> enchantEntry : enchantments.entrySet()) {
+                NamespacedKey key = NamespacedKey.minecraft(enchantEntry.getKey().toLowerCase());
+                Enchantment enchant = Enchantment.getByKey(key);
+                if (enchant != null) {
+                    item.addUnsafeEnchantment(enchant, enchantEntry.getValue());
+                } else {
+                    logger.warning("Invalid enchantment key in " + context + ": " + enchantEntry.getKey());
+                }
+            }
+        }
+        return item;
+    }
+
+    // The string half of create(): material and potion data, without building an ItemStack.
+    // Throws IllegalArgumentException if the material is unknown.
+    static Spec parse(String itemString) {
+        String materialName = itemString.trim();
+        String dataPart = null;
+        int braceIndex = itemString.indexOf('{');
+        if (braceIndex >= 0) {
+            int closeIndex = itemString.lastIndexOf('}');
+            materialName = itemString.substring(0, braceIndex).trim();
+            dataPart = itemString.substring(braceIndex + 1, closeIndex > braceIndex ? closeIndex : itemString.length()).trim();
+        }
+
+        Material material = Material.getMaterial(materialName.toUpperCase());
+        if (material == null) {
+            throw new IllegalArgumentException("Invalid material: " + materialName);
+        }
+        if (dataPart == null || material != Material.SPLASH_POTION || !dataPart.startsWith("Potion:")) {
+            return new Spec(material, null, false, null);
+        }
+
+        String potionInfo = dataPart.substring("Potion:".length()).toLowerCase();
+        boolean upgraded = false;
+        // Determine level: if ends with '2', mark as upgraded (level II)
+        if (potionInfo.endsWith("2")) {
+            upgraded = true;
+            potionInfo = potionInfo.substring(0, potionInfo.length() - 1);
+        } else if (potionInfo.endsWith("1")) {
+            potionInfo = potionInfo.substring(0, potionInfo.length() - 1);
+        }
+
+        PotionType potionType;
+        switch (potionInfo) {
+            case "regeneration":
+                potionType = PotionType.REGENERATION;
+                break;
+            case "swiftness":
+                potionType = PotionType.SWIFTNESS;
+                break;
+            case "strength":
+                potionType = PotionType.STRENGTH;
+                break;
+            case "healing":
+                potionType = PotionType.HEALING;
+                break;
+            default:
+                return new Spec(material, null, false, potionInfo);
+        }
+        return new Spec(material, potionType, upgraded, null);
+    }
+
+    // A parsed item string. potion is null for plain items and for unknown potion types,
+    // whose name is kept in unknownPotion for the warning.
+    static final class Spec {
+        final Material material;
+        final PotionType potion;
+        final boolean upgraded;
+        final String unknownPotion;
+
+        Spec(Material material, PotionType potion, boolean upgraded, String unknownPotion) {
+            this.material = material;
+            this.potion = potion;
+            this.upgraded = upgraded;
+            this.unknownPotion = unknownPotion;
+        }
+    }
+}
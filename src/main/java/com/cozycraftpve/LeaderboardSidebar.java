@@ -0,0 +1,131 @@
+package com.cozycraftpve;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scoreboard.DisplaySlot;
+import org.bukkit.scoreboard.Objective;
+import org.bukkit.scoreboard.Scoreboard;
+
+// One long-lived sidebar scoreboard shared by every player.
+// Changes are recorded with update()/remove() and applied in a single flush once per
+// tick; only entries whose text (name or deaths) or score changed are touched.
+public class LeaderboardSidebar implements Listener {
+
+    private static final Line REMOVED = new Line(null, 0);
+
+    private final JavaPlugin plugin;
+    private final Scoreboard board;
+    private final Objective objective;
+    // Lines currently shown on the sidebar, per player.
+    private final Map<UUID, Line> rendered = new HashMap<>();
+    // Changes recorded since the last flush; REMOVED marks a line to drop.
+    private final Map<UUID, Line> pending = new LinkedHashMap<>();
+    private boolean flushScheduled = false;
+
+    public LeaderboardSidebar(JavaPlugin plugin) {
+        this.plugin = plugin;
+        board = Bukkit.getScoreboardManager().getNewScoreboard();
+        objective = board.registerNewObjective("leaderboard", "dummy", "Leaderboard");
+        objective.setDisplaySlot(DisplaySlot.SIDEBAR);
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            player.setScoreboard(board);
+        }
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+
+    // Records the current kills/deaths for a player; applied at the next flush.
+    public void update(UUID uuid, String name, int kills, int deaths) {
+        Line next = new Line("§5" + name + " | §4☠: §c" + deaths + "§5 | §a", kills);
+        Line shown = rendered.get(uuid);
+        if (shown != null && shown.equals(next) && !pending.containsKey(uuid)) return;
+        pending.put(uuid, next);
+        scheduleFlush();
+    }
+
+    // Drops a player's line from the sidebar at the next flush.
+    public void remove(UUID uuid) {
+        if (!rendered.containsKey(uuid) && !pending.containsKey(uuid)) return;
+        pending.put(uuid, REMOVED);
+        scheduleFlush();
+    }
+
+    // Drops every line from the sidebar at the next flush.
+    public void clear() {
+        pending.clear();
+        for (UUID uuid : rendered.keySet()) {
+            pending.put(uuid, REMOVED);
+        }
+        if (!pending.isEmpty()) scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled) return;
+        flushScheduled = true;
+        Bukkit.getScheduler().runTask(plugin, this::flush);
+    }
+
+    // Applies all changes recorded during the previous tick.
+    private void flush() {
+        flushScheduled = false;
+        for (Map.Entry<UUID, Line> entry : pending.entrySet()) {
+            UUID uuid = entry.getKey();
+            Line next = entry.getValue();
+            Line shown = rendered.get(uuid);
+            if (next == REMOVED) {
+                if (shown != null) {
+                    board.resetScores(shown.text);
+                    rendered.remove(uuid);
+                }
+                continue;
+            }
+            if (shown != null && shown.text.equals(next.text)) {
+                // Same entry, only the score moved.
+                if (shown.score != next.score) {
+                    objective.getScore(next.text).setScore(next.score);
+                }
+            } else {
+                if (shown != null) board.resetScores(shown.text);
+                objective.getScore(next.text).setScore(next.score);
+            }
+            rendered.put(uuid, next);
+        }
+        pending.clear();
+    }
+
+    // Players only need to be attached to the shared board once.
+    @EventHandler
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        event.getPlayer().setScoreboard(board);
+    }
+
+    private static class Line {
+        final String text;
+        final int score;
+
+        Line(String text, int score) {
+            this.text = text;
+            this.score = score;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Line)) return false;
+            Line other = (Line) o;
+            return score == other.score && text != null && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (text == null ? 0 : text.hashCode()) + score;
+        }
+    }
+}
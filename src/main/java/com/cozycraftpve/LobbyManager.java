@@ -208,6 +208,10 @@ public class LobbyManager implements Listener {
         frozenPlayers.remove(event.getPlayer());
     }
     
+    public List<Location> getLobbySpawns() {
+        return lobbySpawns;
+    }
+
     // Check if the game has started (i.e. players have been unfrozen).
     public boolean gameStarted() {
         return gameStarted;
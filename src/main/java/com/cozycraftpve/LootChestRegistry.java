@@ -0,0 +1,351 @@
+package com.cozycraftpve;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Chest;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+
+// Every "chest_loot" chest in the chest world, indexed by chunk.
+// Each chunk key (BlockPos.chunkKey) maps to the packed positions of the loot chests in that
+// chunk, with the loot epoch each chest was last rolled in. Found once by rescan(), then kept
+// current from block place, break, burn and explode events, and persisted to loot_chests.yml
+// so a restart does not need another scan. The file also lists the chunks already scanned: a
+// loaded chunk's tile entities are walked only the first time it is seen, and afterwards its
+// indexed chests are only checked to still be chest blocks, which catches chests removed
+// another way (e.g. WorldEdit) while the chunk was unloaded. Resetting loot only bumps the current epoch; a chest
+// counts as rolled only if it was rolled in the current epoch. Main thread only.
+public class LootChestRegistry implements Listener {
+
+    public static final String LOOT_CHEST_NAME = "chest_loot";
+
+    // Format of loot_chests.yml; files without the scanned chunk list are version 1.
+    private static final int VERSION = 2;
+    // Ticks to wait before saving index changes found on chunk loads, so a burst costs one save.
+    private static final long SAVE_DELAY_TICKS = 100L;
+
+    private final JavaPlugin plugin;
+    private final File file;
+    private final Map<Long, ChestChunk> chunks = new HashMap<>();
+    // Chunks whose tile entities were scanned since the index was built.
+    private final Set<Long> scanned = new HashSet<>();
+    private boolean saveScheduled = false;
+    private World world;
+    private int size = 0;
+    private int epoch = 1; // Chests start at 0, i.e. not yet rolled
+
+    public LootChestRegistry(JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.file = new File(plugin.getDataFolder(), "loot_chests.yml");
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+
+    public static boolean isLootChest(BlockState state) {
+        if (!(state instanceof Chest)) return false;
+        String name = ((Chest) state).getCustomName();
+        return name != null && name.trim().equalsIgnoreCase(LOOT_CHEST_NAME);
+    }
+
+    // Switches to the given chest world, loading the saved index if it was saved for that world.
+    public void setWorld(World world) {
+        if (world == this.world) return;
+        this.world = world;
+        chunks.clear();
+        scanned.clear();
+        size = 0;
+        if (!file.exists()) {
+            // First run: index what is loaded now; chunk loads add the rest.
+            plugin.getLogger().info("Indexed " + rescan() + " loot chests in " + world.getName() + ".");
+            return;
+        }
+        FileConfiguration data = YamlConfiguration.loadConfiguration(file);
+        if (!world.getName().equals(data.getString("world"))) {
+            plugin.getLogger().info("loot_chests.yml is for another world; use /rescanchests to index " + world.getName() + ".");
+            return;
+        }
+        for (long pos : data.getLongList("chests")) add(pos);
+        if (data.getInt("version", 1) == VERSION) {
+            scanned.addAll(data.getLongList("scanned-chunks"));
+        }
+        plugin.getLogger().info("Loaded " + size + " loot chests from loot_chests.yml ("
+                + scanned.size() + " chunks already scanned).");
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public void save() {
+        if (world == null) return;
+        FileConfiguration data = new YamlConfiguration();
+        List<Long> positions = new ArrayList<>(size);
+        for (long pos : positions()) positions.add(pos);
+        data.set("version", VERSION);
+        data.set("world", world.getName());
+        data.set("chests", positions);
+        data.set("scanned-chunks", new ArrayList<>(scanned));
+        try {
+            data.save(file);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not save loot_chests.yml: " + e.getMessage());
+        }
+    }
+
+    // Rebuilds the index from the tile entities of every loaded chunk; returns the chest count.
+    public int rescan() {
+        chunks.clear();
+        scanned.clear();
+        size = 0;
+        if (world == null) return 0;
+        for (Chunk chunk : world.getLoadedChunks()) {
+            scanChunk(chunk);
+        }
+        save();
+        return size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Keys of the chunks that hold at least one loot chest. A copy: callers may load chunks
+    // while iterating, which changes the index.
+    public Set<Long> chunkKeys() {
+        return new HashSet<>(chunks.keySet());
+    }
+
+    // Packed positions of the loot chests in the chunk (empty if none).
+    public long[] chestsIn(long chunkKey) {
+        ChestChunk chunk = chunks.get(chunkKey);
+        return chunk == null ? new long[0] : Arrays.copyOf(chunk.positions, chunk.size);
+    }
+
+    // Packed positions of every indexed loot chest.
+    public long[] positions() {
+        long[] all = new long[size];
+        int n = 0;
+        for (ChestChunk chunk : chunks.values()) {
+            System.arraycopy(chunk.positions, 0, all, n, chunk.size);
+            n += chunk.size;
+        }
+        return all;
+    }
+
+    public boolean contains(long pos) {
+        ChestChunk chunk = chunkOf(pos);
+        return chunk != null && chunk.indexOf(pos) >= 0;
+    }
+
+    // True if the chest was rolled in the current epoch.
+    public boolean isRolled(long pos) {
+        ChestChunk chunk = chunkOf(pos);
+        if (chunk == null) return false;
+        int i = chunk.indexOf(pos);
+        return i >= 0 && chunk.rolledEpoch[i] == epoch;
+    }
+
+    public void markRolled(long pos) {
+        ChestChunk chunk = chunkOf(pos);
+        if (chunk == null) return;
+        int i = chunk.indexOf(pos);
+        if (i >= 0) chunk.rolledEpoch[i] = epoch;
+    }
+
+    // Every chest may be rolled again. O(1): nothing is touched until a chest is opened.
+    public void bumpEpoch() {
+        epoch++;
+    }
+
+    public int epoch() {
+        return epoch;
+    }
+
+    public boolean add(long pos) {
+        long key = BlockPos.chunkKeyAt(BlockPos.x(pos), BlockPos.z(pos));
+        ChestChunk chunk = chunks.get(key);
+        if (chunk == null) {
+            chunk = new ChestChunk();
+            chunks.put(key, chunk);
+        }
+        if (chunk.indexOf(pos) >= 0) return false;
+        chunk.add(pos);
+        size++;
+        return true;
+    }
+
+    public boolean remove(long pos) {
+        long key = BlockPos.chunkKeyAt(BlockPos.x(pos), BlockPos.z(pos));
+        ChestChunk chunk = chunks.get(key);
+        if (chunk == null || !chunk.remove(pos)) return false;
+        if (chunk.size == 0) chunks.remove(key);
+        size--;
+        return true;
+    }
+
+    // Re-indexes one chunk from its tile entities, keeping the rolled epochs of chests still there.
+    private void scanChunk(Chunk chunk) {
+        long key = BlockPos.chunkKey(chunk.getX(), chunk.getZ());
+        scanned.add(key);
+        ChestChunk old = chunks.remove(key);
+        if (old != null) size -= old.size;
+        for (BlockState state : chunk.getTileEntities()) {
+            if (!isLootChest(state)) continue;
+            long pos = BlockPos.pack(state.getX(), state.getY(), state.getZ());
+            add(pos);
+            if (old != null) {
+                int i = old.indexOf(pos);
+                if (i >= 0) setRolledEpoch(pos, old.rolledEpoch[i]);
+            }
+        }
+    }
+
+    // Drops indexed chests of an already scanned chunk that are no longer chest blocks, e.g.
+    // destroyed while the plugin was not watching. Returns true if any were dropped.
+    private boolean dropStale(Chunk chunk) {
+        ChestChunk entry = chunks.get(BlockPos.chunkKey(chunk.getX(), chunk.getZ()));
+        if (entry == null) return false;
+        boolean dropped = false;
+        for (int i = entry.size - 1; i >= 0; i--) {
+            long pos = entry.positions[i];
+            Material type = chunk.getBlock(BlockPos.x(pos) & 15, BlockPos.y(pos), BlockPos.z(pos) & 15).getType();
+            if (type == Material.CHEST || type == Material.TRAPPED_CHEST) continue;
+            remove(pos);
+            dropped = true;
+        }
+        return dropped;
+    }
+
+    private void scheduleSave() {
+        if (saveScheduled) return;
+        saveScheduled = true;
+        Bukkit.getScheduler().runTaskLater(plugin, () -> {
+            saveScheduled = false;
+            save();
+        }, SAVE_DELAY_TICKS);
+    }
+
+    private void setRolledEpoch(long pos, int rolledEpoch) {
+        ChestChunk chunk = chunkOf(pos);
+        int i = chunk.indexOf(pos);
+        chunk.rolledEpoch[i] = rolledEpoch;
+    }
+
+    private ChestChunk chunkOf(long pos) {
+        return chunks.get(BlockPos.chunkKeyAt(BlockPos.x(pos), BlockPos.z(pos)));
+    }
+
+    // Walks tile entities only for chunks not scanned yet; freshly generated chunks hold no
+    // named loot chests and are only marked as scanned.
+    @EventHandler
+    public void onChunkLoad(ChunkLoadEvent event) {
+        if (event.getWorld() != world) return;
+        Chunk chunk = event.getChunk();
+        long key = BlockPos.chunkKey(chunk.getX(), chunk.getZ());
+        if (event.isNewChunk()) {
+            if (scanned.add(key)) scheduleSave();
+        } else if (scanned.contains(key)) {
+            if (dropStale(chunk)) scheduleSave();
+        } else {
+            scanChunk(chunk);
+            scheduleSave();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        Block block = event.getBlockPlaced();
+        if (block.getWorld() != world || !isLootChest(block.getState())) return;
+        if (add(BlockPos.pack(block.getX(), block.getY(), block.getZ()))) save();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        if (removeBlock(event.getBlock())) save();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        if (removeBlock(event.getBlock())) save();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        if (removeBlocks(event.blockList())) save();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        if (removeBlocks(event.blockList())) save();
+    }
+
+    private boolean removeBlock(Block block) {
+        return block.getWorld() == world && remove(BlockPos.pack(block.getX(), block.getY(), block.getZ()));
+    }
+
+    // Drops any indexed chests among the blocks an explosion destroys.
+    private boolean removeBlocks(List<Block> blocks) {
+        if (size == 0) return false;
+        boolean removed = false;
+        for (Block block : blocks) {
+            if (removeBlock(block)) removed = true;
+        }
+        return removed;
+    }
+
+    // Loot chests of one chunk; a handful at most, so lookups are linear scans.
+    private static class ChestChunk {
+        long[] positions = new long[2];
+        int[] rolledEpoch = new int[2];
+        int size = 0;
+
+        int indexOf(long pos) {
+            for (int i = 0; i < size; i++) {
+                if (positions[i] == pos) return i;
+            }
+            return -1;
+        }
+
+        void add(long pos) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+                rolledEpoch = Arrays.copyOf(rolledEpoch, size * 2);
+            }
+            positions[size] = pos;
+            rolledEpoch[size] = 0;
+            size++;
+        }
+
+        boolean remove(long pos) {
+            int i = indexOf(pos);
+            if (i < 0) return false;
+            size--;
+            positions[i] = positions[size];
+            rolledEpoch[i] = rolledEpoch[size];
+            return true;
+        }
+    }
+}
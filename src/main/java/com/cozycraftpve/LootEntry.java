@@ -0,0 +1,50 @@
+package com.cozycraftpve;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.bukkit.inventory.ItemStack;
+
+// A single loot option from config_spawn.yml (mob drops) or config_chest.yml (chest tiers).
+// The item is resolved into a template when the config loads; each drop is a clone of it.
+class LootEntry {
+    final String itemString;
+    final int weight;
+    final int amount;
+    private final ItemStack template;
+
+    LootEntry(String itemString, int weight, int amount, ItemStack template) {
+        this.itemString = itemString;
+        this.weight = weight;
+        this.amount = amount;
+        this.template = template;
+    }
+
+    // Fresh copy of the prebuilt item, with potion data and enchantments already applied.
+    ItemStack newItem() {
+        return template.clone();
+    }
+
+    // Parses and resolves one "- item: ..." map from a loot list. Amount defaults to 1.
+    // Throws IllegalArgumentException if the entry or its material is invalid.
+    static LootEntry fromConfig(Map<?, ?> lootData, Logger logger, String context) {
+        Object item = lootData.get("item");
+        Object weight = lootData.get("weight");
+        if (item == null || weight == null) {
+            throw new IllegalArgumentException("Loot entry needs both 'item' and 'weight': " + lootData);
+        }
+        int amount = lootData.containsKey("amount") ? Integer.parseInt(lootData.get("amount").toString()) : 1;
+        Map<String, Integer> enchantments = null;
+        if (lootData.containsKey("enchantments")) {
+            enchantments = new HashMap<>();
+            Map<?, ?> enchants = (Map<?, ?>) lootData.get("enchantments");
+            for (Map.Entry<?, ?> enchant : enchants.entrySet()) {
+                enchantments.put(enchant.getKey().toString(), Integer.parseInt(enchant.getValue().toString()));
+            }
+        }
+        String itemString = item.toString();
+        ItemStack template = ItemTemplates.create(itemString, amount, enchantments, logger, context);
+        return new LootEntry(itemString, Integer.parseInt(weight.toString()), amount, template);
+    }
+}
@@ -0,0 +1,58 @@
+package com.cozycraftpve;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.logging.Logger;
+
+// Immutable, precompiled loot table shared by mob drops and chest fills.
+// Entries are parsed into item templates and the alias table is built when the config
+// loads, so each roll is O(1) and allocation-free.
+final class LootTable {
+
+    private final LootEntry[] entries;
+    private final AliasTable alias;
+
+    private LootTable(LootEntry[] entries) {
+        this.entries = entries;
+        int[] weights = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            weights[i] = entries[i].weight;
+        }
+        this.alias = new AliasTable(weights);
+    }
+
+    // Compiles a loot list from config. Invalid entries are reported and skipped;
+    // returns null if nothing in the list can be rolled.
+    static LootTable compile(List<Map<?, ?>> lootList, Logger logger, String context) {
+        List<LootEntry> parsed = new ArrayList<>();
+        for (Map<?, ?> lootData : lootList) {
+            LootEntry entry;
+            try {
+                entry = LootEntry.fromConfig(lootData, logger, context);
+            } catch (IllegalArgumentException | ClassCastException e) {
+                logger.warning("Invalid loot entry in " + context + ": " + e.getMessage());
+                continue;
+            }
+            if (entry.weight < 0) {
+                logger.warning("Negative loot weight in " + context + " for " + entry.itemString + "; skipping.");
+                continue;
+            }
+            if (entry.weight > 0) parsed.add(entry);
+        }
+        if (parsed.isEmpty()) {
+            logger.warning("No rollable loot entries in " + context + ".");
+            return null;
+        }
+        return new LootTable(parsed.toArray(new LootEntry[0]));
+    }
+
+    LootEntry roll(SplittableRandom random) {
+        return entries[alias.sample(random)];
+    }
+
+    int size() {
+        return entries.length;
+    }
+}
@@ -0,0 +1,258 @@
+package com.cozycraftpve;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+// Counters, gauges and latency timers for the plugin's hot paths. Metrics are registered once
+// at startup; recording is a few LongAdder increments with no allocation or locking, so it
+// can stay on in production. exposition() renders the Prometheus text format and summary()
+// the lines shown by /mrstats. Gauges read their source when rendered, so render on the main
+// thread and hand the text to another thread if needed.
+public class Metrics {
+
+    static final String PREFIX = "mobroyale_";
+
+    private final Map<String, Metric> metrics = new ConcurrentSkipListMap<>();
+
+    public Counter counter(String name, String help) {
+        return register(new Counter(PREFIX + name + "_total", help));
+    }
+
+    public Timer timer(String name, String help) {
+        return register(new Timer(PREFIX + name + "_seconds", help));
+    }
+
+    public void gauge(String name, String help, DoubleSupplier value) {
+        register(new Gauge(PREFIX + name, help, value));
+    }
+
+    private <M extends Metric> M register(M metric) {
+        if (metrics.putIfAbsent(metric.name, metric) != null) {
+            throw new IllegalArgumentException("Metric registered twice: " + metric.name);
+        }
+        return metric;
+    }
+
+    // Every metric in the Prometheus text exposition format (version 0.0.4).
+    public String exposition() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Metric metric : metrics.values()) {
+            out.append("# HELP ").append(metric.name).append(' ').append(metric.help).append('\n');
+            out.append("# TYPE ").append(metric.name).append(' ').append(metric.type()).append('\n');
+            metric.expose(out);
+        }
+        return out.toString();
+    }
+
+    // Replaces file with the given exposition text, so a scraper never reads a partial file.
+    public static void write(File file, String exposition) throws IOException {
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(exposition.getBytes(StandardCharsets.UTF_8));
+        }
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // One human-readable line per metric, for /mrstats.
+    public List<String> summary() {
+        List<String> lines = new ArrayList<>(metrics.size());
+        for (Metric metric : metrics.values()) {
+            lines.add(metric.name.substring(PREFIX.length()) + ": " + metric.describe());
+        }
+        return lines;
+    }
+
+    private static String number(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    abstract static class Metric {
+        final String name;
+        final String help;
+
+        Metric(String name, String help) {
+            this.name = name;
+            this.help = help;
+        }
+
+        abstract String type();
+
+        abstract void expose(StringBuilder out);
+
+        abstract String describe();
+    }
+
+    public static final class Counter extends Metric {
+        private final LongAdder count = new LongAdder();
+
+        Counter(String name, String help) {
+            super(name, help);
+        }
+
+        public void inc() {
+            count.increment();
+        }
+
+        public void add(long n) {
+            count.add(n);
+        }
+
+        public long get() {
+            return count.sum();
+        }
+
+        @Override
+        String type() {
+            return "counter";
+        }
+
+        @Override
+        void expose(StringBuilder out) {
+            out.append(name).append(' ').append(get()).append('\n');
+        }
+
+        @Override
+        String describe() {
+            return Long.toString(get());
+        }
+    }
+
+    static final class Gauge extends Metric {
+        private final DoubleSupplier value;
+
+        Gauge(String name, String help, DoubleSupplier value) {
+            super(name, help);
+            this.value = value;
+        }
+
+        @Override
+        String type() {
+            return "gauge";
+        }
+
+        @Override
+        void expose(StringBuilder out) {
+            out.append(name).append(' ').append(number(value.getAsDouble())).append('\n');
+        }
+
+        @Override
+        String describe() {
+            return String.format(Locale.ROOT, "%.2f", value.getAsDouble());
+        }
+    }
+
+    // Latency histogram over power-of-two nanosecond buckets: bucket i counts durations in
+    // (2^(i-1), 2^i] ns, so any duration lands in one of 64 buckets with at most 2x error.
+    // Quantiles are reported as the upper bound of the bucket they fall in.
+    public static final class Timer extends Metric {
+        // Buckets written to the exposition file: 1.024 us (2^10 ns) up to 8.6 s (2^33 ns).
+        static final int FIRST_EXPOSED = 10;
+        static final int LAST_EXPOSED = 33;
+
+        private final LongAdder[] buckets = new LongAdder[64];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sumNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        Timer(String name, String help) {
+            super(name, help);
+            for (int i = 0; i < buckets.length; i++) buckets[i] = new LongAdder();
+        }
+
+        // Records the time since start, a System.nanoTime() reading.
+        public void since(long start) {
+            record(System.nanoTime() - start);
+        }
+
+        public void record(long nanos) {
+            if (nanos < 0) nanos = 0;
+            buckets[bucketOf(nanos)].increment();
+            count.increment();
+            sumNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        static int bucketOf(long nanos) {
+            return nanos <= 1 ? 0 : Math.min(63, 64 - Long.numberOfLeadingZeros(nanos - 1));
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public long maxNanos() {
+            return maxNanos.get();
+        }
+
+        public double meanNanos() {
+            long n = count.sum();
+            return n == 0 ? 0 : (double) sumNanos.sum() / n;
+        }
+
+        // Upper bound (ns) of the bucket holding the q-th quantile, 0 if nothing was recorded.
+        public long quantileNanos(double q) {
+            long[] counts = new long[buckets.length];
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets[i].sum();
+                total += counts[i];
+            }
+            if (total == 0) return 0;
+            long rank = (long) Math.ceil(q * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= Math.max(1, rank)) return Math.min(1L << i, maxNanos.get());
+            }
+            return maxNanos.get();
+        }
+
+        @Override
+        String type() {
+            return "histogram";
+        }
+
+        @Override
+        void expose(StringBuilder out) {
+            long cumulative = 0;
+            for (int i = 0; i <= LAST_EXPOSED; i++) {
+                cumulative += buckets[i].sum();
+                if (i < FIRST_EXPOSED) continue;
+                out.append(name).append("_bucket{le=\"").append(number((1L << i) / 1e9)).append("\"} ")
+                        .append(cumulative).append('\n');
+            }
+            // Total from the same bucket reads, so +Inf never falls below the last bucket.
+            long total = cumulative;
+            for (int i = LAST_EXPOSED + 1; i < buckets.length; i++) total += buckets[i].sum();
+            out.append(name).append("_bucket{le=\"+Inf\"} ").append(total).append('\n');
+            out.append(name).append("_sum ").append(number(sumNanos.sum() / 1e9)).append('\n');
+            out.append(name).append("_count ").append(total).append('\n');
+        }
+
+        @Override
+        String describe() {
+            return String.format(Locale.ROOT, "n=%d avg=%.3fms p50<=%.3fms p99<=%.3fms max=%.3fms",
+                    count(), meanNanos() / 1e6, quantileNanos(0.5) / 1e6, quantileNanos(0.99) / 1e6, maxNanos() / 1e6);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.cozycraftpve;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+
+// Bounded LRU cache of player names, so leaderboard rendering never calls
+// Bukkit.getOfflinePlayer on the main thread. Filled from names.yml at startup and on
+// every join; unknown UUIDs are looked up asynchronously and reported through the
+// resolved callback once the name is known. Main thread only.
+public class NameCache implements Listener {
+
+    private final JavaPlugin plugin;
+    private final File cacheFile;
+    private final int maxSize;
+    private final Map<UUID, String> names;
+    private final Set<UUID> pendingLookups = new HashSet<>();
+    // UUIDs the server has no name for; not looked up again until they join.
+    private final Set<UUID> unknown = new HashSet<>();
+    private final BiConsumer<UUID, String> onResolved;
+
+    public NameCache(JavaPlugin plugin, int maxSize, BiConsumer<UUID, String> onResolved) {
+        this.plugin = plugin;
+        this.cacheFile = new File(plugin.getDataFolder(), "names.yml");
+        this.maxSize = Math.max(1, maxSize);
+        this.onResolved = onResolved;
+        this.names = new LinkedHashMap<UUID, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, String> eldest) {
+                return size() > NameCache.this.maxSize;
+            }
+        };
+        load();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            put(player.getUniqueId(), player.getName());
+        }
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+
+    // Returns the cached name, or a short UUID placeholder while the name is resolved off-thread.
+    public String get(UUID uuid) {
+        String name = names.get(uuid);
+        if (name != null) return name;
+        resolveAsync(uuid);
+        return uuid.toString().substring(0, 8);
+    }
+
+    public void put(UUID uuid, String name) {
+        if (name == null) return;
+        names.put(uuid, name);
+        unknown.remove(uuid);
+    }
+
+    private void resolveAsync(UUID uuid) {
+        if (unknown.contains(uuid) || !pendingLookups.add(uuid)) return;
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            String name = Bukkit.getOfflinePlayer(uuid).getName();
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                pendingLookups.remove(uuid);
+                if (name == null) {
+                    unknown.add(uuid);
+                    return;
+                }
+                put(uuid, name);
+                if (onResolved != null) onResolved.accept(uuid, name);
+            });
+        });
+    }
+
+    private void load() {
+        if (!cacheFile.exists()) return;
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(cacheFile);
+        // Saved least recently used first, so insertion order restores the LRU order.
+        for (String key : config.getKeys(false)) {
+            try {
+                put(UUID.fromString(key), config.getString(key));
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("Skipping invalid UUID in names.yml: " + key);
+            }
+        }
+        plugin.getLogger().info("Loaded " + names.size() + " cached player names.");
+    }
+
+    public void save() {
+        YamlConfiguration config = new YamlConfiguration();
+        for (Map.Entry<UUID, String> entry : names.entrySet()) {
+            config.set(entry.getKey().toString(), entry.getValue());
+        }
+        try {
+            config.save(cacheFile);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not save names.yml!");
+            e.printStackTrace();
+        }
+    }
+
+    @EventHandler
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        String previous = names.get(player.getUniqueId());
+        put(player.getUniqueId(), player.getName());
+        // Renamed players (or ones we only had a placeholder for) need their lines refreshed.
+        if (onResolved != null && !player.getName().equals(previous)) {
+            onResolved.accept(player.getUniqueId(), player.getName());
+        }
+    }
+}
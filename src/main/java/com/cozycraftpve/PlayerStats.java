@@ -0,0 +1,141 @@
+package com.cozycraftpve;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+// Struct-of-arrays player stats table. Each UUID is given a dense int slot the first
+// time it appears; points, kills and deaths live in parallel primitive arrays indexed
+// by that slot, so updates never box. A slot is "scored" once the player has points on
+// the current leaderboard; resetScores() clears that without forgetting deaths.
+// Main thread only; use snapshot() to hand the data to another thread.
+public class PlayerStats {
+
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    private UUID[] owners = new UUID[16];
+    private int[] points = new int[16];
+    private int[] kills = new int[16];
+    private int[] deaths = new int[16];
+    private boolean[] scored = new boolean[16];
+    private int size = 0;
+
+    // Slot for the player, or -1 if they have never been seen.
+    public int slotOf(UUID uuid) {
+        Integer slot = slots.get(uuid);
+        return slot == null ? -1 : slot;
+    }
+
+    // Slot for the player, assigning the next free one on first sight.
+    public int slot(UUID uuid) {
+        Integer slot = slots.get(uuid);
+        if (slot != null) return slot;
+        if (size == owners.length) grow();
+        owners[size] = uuid;
+        slots.put(uuid, size);
+        return size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public UUID owner(int slot) {
+        return owners[slot];
+    }
+
+    public int points(int slot) {
+        return points[slot];
+    }
+
+    public int kills(int slot) {
+        return kills[slot];
+    }
+
+    public int deaths(int slot) {
+        return deaths[slot];
+    }
+
+    public boolean isScored(int slot) {
+        return scored[slot];
+    }
+
+    // Records a kill worth the given points; returns the new points total.
+    public int addKill(int slot, int gained) {
+        kills[slot]++;
+        scored[slot] = true;
+        return points[slot] += gained;
+    }
+
+    // Adds points without counting a kill (used when replaying persisted scores).
+    public int addPoints(int slot, int gained) {
+        scored[slot] = true;
+        return points[slot] += gained;
+    }
+
+    // Records a death; returns the new death count.
+    public int addDeath(int slot) {
+        return ++deaths[slot];
+    }
+
+    // Clears points and kills for everyone (deaths are kept).
+    public void resetScores() {
+        Arrays.fill(points, 0, size, 0);
+        Arrays.fill(kills, 0, size, 0);
+        Arrays.fill(scored, 0, size, false);
+    }
+
+    // Copies the table so it can be persisted or rendered off the main thread.
+    public Snapshot snapshot() {
+        return new Snapshot(Arrays.copyOf(owners, size), Arrays.copyOf(points, size),
+                Arrays.copyOf(kills, size), Arrays.copyOf(deaths, size), Arrays.copyOf(scored, size));
+    }
+
+    private void grow() {
+        int capacity = owners.length * 2;
+        owners = Arrays.copyOf(owners, capacity);
+        points = Arrays.copyOf(points, capacity);
+        kills = Arrays.copyOf(kills, capacity);
+        deaths = Arrays.copyOf(deaths, capacity);
+        scored = Arrays.copyOf(scored, capacity);
+    }
+
+    // Point-in-time copy of the table, indexed by the same slots.
+    public static class Snapshot {
+        final UUID[] owners;
+        final int[] points;
+        final int[] kills;
+        final int[] deaths;
+        final boolean[] scored;
+
+        Snapshot(UUID[] owners, int[] points, int[] kills, int[] deaths, boolean[] scored) {
+            this.owners = owners;
+            this.points = points;
+            this.kills = kills;
+            this.deaths = deaths;
+            this.scored = scored;
+        }
+
+        public int size() {
+            return owners.length;
+        }
+
+        // Points of every scored player, keyed by UUID.
+        public Map<UUID, Integer> scores() {
+            Map<UUID, Integer> result = new HashMap<>();
+            for (int slot = 0; slot < owners.length; slot++) {
+                if (scored[slot]) result.put(owners[slot], points[slot]);
+            }
+            return result;
+        }
+
+        // Deaths of every known player, keyed by UUID.
+        public Map<UUID, Integer> deaths() {
+            Map<UUID, Integer> result = new HashMap<>();
+            for (int slot = 0; slot < owners.length; slot++) {
+                if (deaths[slot] > 0) result.put(owners[slot], deaths[slot]);
+            }
+            return result;
+        }
+    }
+}
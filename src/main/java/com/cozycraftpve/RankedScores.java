@@ -0,0 +1,13 @@
+package com.cozycraftpve;
+
+import java.util.UUID;
+
+// Read-only view of scores in leaderboard order (position 0 is the top score).
+public interface RankedScores {
+
+    int size();
+
+    UUID uuidAt(int position);
+
+    int scoreAt(int position);
+}
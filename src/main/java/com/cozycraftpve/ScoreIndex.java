@@ -0,0 +1,205 @@
+package com.cozycraftpve;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+// Order-statistic index over player scores, ordered by score (highest first) and then
+// by UUID. Backed by a size-augmented treap, so updates, "rank of player X" and
+// "entry at position k" are all O(log n) and pages never need a full sort.
+// Positions are 0-based; ranks returned by rank() are 1-based.
+public class ScoreIndex implements RankedScores {
+
+    private final Map<UUID, Node> nodes = new HashMap<>();
+    private Node root;
+    private long seed = 0x9E3779B97F4A7C15L; // treap priorities (xorshift)
+
+    @Override
+    public int size() {
+        return nodes.size();
+    }
+
+    public boolean contains(UUID uuid) {
+        return nodes.containsKey(uuid);
+    }
+
+    // Score of the given player, or 0 if they are not in the index.
+    public int scoreOf(UUID uuid) {
+        Node node = nodes.get(uuid);
+        return node == null ? 0 : node.score;
+    }
+
+    // Inserts the player or moves them to their new score.
+    public void put(UUID uuid, int score) {
+        Node node = nodes.get(uuid);
+        if (node != null) {
+            if (node.score == score) return;
+            root = remove(root, node);
+            node.score = score;
+            node.left = null;
+            node.right = null;
+            node.size = 1;
+        } else {
+            node = new Node(uuid, score, nextPriority());
+            nodes.put(uuid, node);
+        }
+        root = insert(root, node);
+    }
+
+    public boolean remove(UUID uuid) {
+        Node node = nodes.remove(uuid);
+        if (node == null) return false;
+        root = remove(root, node);
+        return true;
+    }
+
+    public void clear() {
+        nodes.clear();
+        root = null;
+    }
+
+    // 1-based leaderboard position of the player, or 0 if they are not in the index.
+    public int rank(UUID uuid) {
+        Node target = nodes.get(uuid);
+        if (target == null) return 0;
+        int before = 0;
+        Node t = root;
+        while (t != null) {
+            int cmp = compare(target, t);
+            if (cmp < 0) {
+                t = t.left;
+            } else if (cmp > 0) {
+                before += size(t.left) + 1;
+                t = t.right;
+            } else {
+                return before + size(t.left) + 1;
+            }
+        }
+        return 0;
+    }
+
+    // Player at the given 0-based position.
+    @Override
+    public UUID uuidAt(int position) {
+        return select(position).uuid;
+    }
+
+    // Score at the given 0-based position.
+    @Override
+    public int scoreAt(int position) {
+        return select(position).score;
+    }
+
+    private Node select(int position) {
+        if (position < 0 || position >= size()) {
+            throw new IndexOutOfBoundsException("Position " + position + " of " + size());
+        }
+        Node t = root;
+        while (true) {
+            int leftSize = size(t.left);
+            if (position < leftSize) {
+                t = t.left;
+            } else if (position == leftSize) {
+                return t;
+            } else {
+                position -= leftSize + 1;
+                t = t.right;
+            }
+        }
+    }
+
+    private Node insert(Node t, Node node) {
+        if (t == null) return node;
+        if (node.priority > t.priority) {
+            Node[] parts = split(t, node);
+            node.left = parts[0];
+            node.right = parts[1];
+            update(node);
+            return node;
+        }
+        if (compare(node, t) < 0) {
+            t.left = insert(t.left, node);
+        } else {
+            t.right = insert(t.right, node);
+        }
+        update(t);
+        return t;
+    }
+
+    private Node remove(Node t, Node node) {
+        if (t == null) return null;
+        if (t == node) return merge(t.left, t.right);
+        if (compare(node, t) < 0) {
+            t.left = remove(t.left, node);
+        } else {
+            t.right = remove(t.right, node);
+        }
+        update(t);
+        return t;
+    }
+
+    // Splits t into nodes ordered before key and nodes ordered after it.
+    private Node[] split(Node t, Node key) {
+        if (t == null) return new Node[] {null, null};
+        if (compare(t, key) < 0) {
+            Node[] parts = split(t.right, key);
+            t.right = parts[0];
+            update(t);
+            parts[0] = t;
+            return parts;
+        }
+        Node[] parts = split(t.left, key);
+        t.left = parts[1];
+        update(t);
+        parts[1] = t;
+        return parts;
+    }
+
+    private Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private static int compare(Node a, Node b) {
+        if (a.score != b.score) return a.score > b.score ? -1 : 1;
+        return a.uuid.compareTo(b.uuid);
+    }
+
+    private static int size(Node t) {
+        return t == null ? 0 : t.size;
+    }
+
+    private static void update(Node t) {
+        t.size = size(t.left) + size(t.right) + 1;
+    }
+
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return (int) (seed >>> 32);
+    }
+
+    private static class Node {
+        final UUID uuid;
+        int score;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(UUID uuid, int score, int priority) {
+            this.uuid = uuid;
+            this.score = score;
+            this.priority = priority;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.cozycraftpve;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+
+// Write-behind persistence for player scores.
+// Every kill appends a small (UUID, points, timestamp) delta to scores.journal on a
+// background writer thread. The journal is periodically folded into the scores.yml
+// snapshot, which is written to a temp file and renamed over the old one.
+public class ScoreJournal {
+
+    private static final int JOURNAL_MAGIC = 0x4D524A31; // "MRJ1"
+    private static final int HEADER_SIZE = 12;           // magic + generation
+    private static final int RECORD_SIZE = 28;           // msb + lsb + points + timestamp
+    // Snapshot key recording the journal generation already folded into it.
+    private static final String GENERATION_KEY = "journal-generation";
+    private static final Object STOP = new Object();
+
+    private final Logger logger;
+    private final File snapshotFile;
+    private final File journalFile;
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private Thread writerThread;
+
+    // Owned by the writer thread once started.
+    private DataOutputStream journalOut;
+    private long generation;
+    private boolean journalCovered;
+    // The journal on disk belongs to a generation a snapshot already covers.
+    private boolean journalStale;
+    // Deltas that failed to write, retried with the next batch until a snapshot covers them.
+    private final List<Delta> unwritten = new ArrayList<>();
+
+    public ScoreJournal(File dataFolder, Logger logger) {
+        this.logger = logger;
+        this.snapshotFile = new File(dataFolder, "scores.yml");
+        this.journalFile = new File(dataFolder, "scores.journal");
+    }
+
+    // Replays scores.yml and then any journal entries not yet folded into it.
+    // Must be called before start().
+    public void load(PlayerStats stats) {
+        long coveredGeneration = -1;
+        if (snapshotFile.exists()) {
+            YamlConfiguration snapshot = YamlConfiguration.loadConfiguration(snapshotFile);
+            for (String key : snapshot.getKeys(false)) {
+                if (key.equals(GENERATION_KEY)) {
+                    coveredGeneration = snapshot.getLong(key);
+                    continue;
+                }
+                try {
+                    stats.addPoints(stats.slot(UUID.fromString(key)), snapshot.getInt(key));
+                } catch (IllegalArgumentException e) {
+                    logger.warning("Skipping invalid UUID in scores.yml: " + key);
+                }
+            }
+        }
+
+        generation = coveredGeneration + 1;
+        journalCovered = false;
+        if (!journalFile.exists()) return;
+
+        int replayed = 0;
+        boolean headerRead = false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)))) {
+            if (in.readInt() != JOURNAL_MAGIC) {
+                logger.warning("scores.journal has an unknown header; ignoring it.");
+                journalCovered = true;
+                return;
+            }
+            long journalGeneration = in.readLong();
+            if (journalGeneration <= coveredGeneration) {
+                // A compaction finished but the journal was not truncated yet.
+                journalCovered = true;
+                return;
+            }
+            generation = journalGeneration;
+            headerRead = true;
+            while (true) {
+                long msb = in.readLong();
+                long lsb = in.readLong();
+                int points = in.readInt();
+                in.readLong(); // timestamp
+                stats.addPoints(stats.slot(new UUID(msb, lsb)), points);
+                replayed++;
+            }
+        } catch (EOFException e) {
+            // End of journal, or a record cut short by a crash; either way we are done.
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Could not read scores.journal!", e);
+        }
+        if (replayed > 0) {
+            logger.info("Replayed " + replayed + " score deltas from scores.journal.");
+        }
+        if (!journalCovered) {
+            if (!headerRead) {
+                // Header cut short: nothing to keep, start() writes a fresh journal.
+                journalCovered = true;
+            } else {
+                truncateTornRecord(HEADER_SIZE + (long) replayed * RECORD_SIZE);
+            }
+        }
+    }
+
+    // Cuts off a record left half-written by a crash or a failed write, so appends start on a
+    // record boundary.
+    private void truncateTornRecord(long validLength) {
+        try (RandomAccessFile raf = new RandomAccessFile(journalFile, "rw")) {
+            if (raf.length() > validLength) {
+                logger.warning("Dropping " + (raf.length() - validLength) + " bytes of a torn record at the end of scores.journal.");
+                raf.setLength(validLength);
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Could not repair scores.journal; starting a new one.", e);
+            journalCovered = true;
+        }
+    }
+
+    // Opens the journal and starts the background writer.
+    public void start() {
+        try {
+            openJournal(journalCovered || !journalFile.exists());
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Could not open scores.journal!", e);
+        }
+        writerThread = new Thread(this::runWriter, "MobRoyale-ScoreJournal");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    // Queues a score delta. Safe to call from the main thread on every kill.
+    public void append(UUID uuid, int points) {
+        queue.add(new Delta(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(),
+                points, System.currentTimeMillis()));
+    }
+
+    // Queues a compaction of the given stats into scores.yml. Take the snapshot on the
+    // main thread right before calling, so every delta appended earlier is included.
+    public void compact(PlayerStats.Snapshot stats) {
+        queue.add(stats);
+    }
+
+    // Writes a final snapshot and stops the writer, waiting for it to finish.
+    public void close(PlayerStats.Snapshot stats) {
+        compact(stats);
+        queue.add(STOP);
+        if (writerThread == null) return;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            logger.warning("Score journal writer did not finish in time; recent scores may only be in scores.journal.");
+        }
+    }
+
+    // Each op is written on its own, so one failure never drops the rest of the batch or STOP.
+    private void runWriter() {
+        List<Object> batch = new ArrayList<>();
+        boolean stop = false;
+        while (!stop) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch);
+            if (!unwritten.isEmpty()) {
+                batch.addAll(0, unwritten);
+                unwritten.clear();
+            }
+            IOException failure = null;
+            for (Object op : batch) {
+                if (op == STOP) {
+                    stop = true;
+                    break;
+                }
+                try {
+                    if (op instanceof Delta) {
+                        writeDelta((Delta) op);
+                    } else if (op instanceof PlayerStats.Snapshot) {
+                        writeSnapshot((PlayerStats.Snapshot) op);
+                        // The snapshot holds every earlier delta, written or not.
+                        unwritten.clear();
+                    }
+                } catch (IOException e) {
+                    if (failure == null) failure = e;
+                    // The stream may hold part of a record; the next write reopens and repairs it.
+                    closeJournal();
+                    if (op instanceof Delta) unwritten.add((Delta) op);
+                }
+            }
+            try {
+                if (journalOut != null) journalOut.flush();
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+                closeJournal();
+            }
+            if (failure != null) {
+                logger.log(Level.SEVERE, "Could not write scores!"
+                        + (unwritten.isEmpty() ? "" : " " + unwritten.size() + " score deltas will be retried."), failure);
+            }
+            batch.clear();
+        }
+        if (!unwritten.isEmpty()) {
+            logger.severe(unwritten.size() + " score deltas were never written; they are only in scores.yml if its last save succeeded.");
+        }
+        closeJournal();
+    }
+
+    private void writeDelta(Delta delta) throws IOException {
+        if (journalOut == null) {
+            boolean fresh = journalStale || !journalFile.exists() || journalFile.length() < HEADER_SIZE;
+            if (!fresh) {
+                long records = (journalFile.length() - HEADER_SIZE) / RECORD_SIZE;
+                journalCovered = false;
+                truncateTornRecord(HEADER_SIZE + records * RECORD_SIZE);
+                fresh = journalCovered;
+            }
+            openJournal(fresh);
+        }
+        journalOut.writeLong(delta.msb);
+        journalOut.writeLong(delta.lsb);
+        journalOut.writeInt(delta.points);
+        journalOut.writeLong(delta.timestamp);
+    }
+
+    // Writer thread only; package-private so the benchmarks can time a compaction directly.
+    void writeSnapshot(PlayerStats.Snapshot stats) throws IOException {
+        YamlConfiguration snapshot = new YamlConfiguration();
+        for (int slot = 0; slot < stats.size(); slot++) {
+            if (stats.scored[slot]) {
+                snapshot.set(stats.owners[slot].toString(), stats.points[slot]);
+            }
+        }
+        snapshot.set(GENERATION_KEY, generation);
+
+        File tmp = new File(snapshotFile.getParentFile(), snapshotFile.getName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(snapshot.saveToString().getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        }
+        try {
+            Files.move(tmp.toPath(), snapshotFile.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        // The snapshot now covers this generation; start a fresh journal.
+        journalStale = true;
+        closeJournal();
+        generation++;
+        openJournal(true);
+        journalStale = false;
+    }
+
+    private void openJournal(boolean truncate) throws IOException {
+        File parent = journalFile.getParentFile();
+        if (parent != null && !parent.exists()) parent.mkdirs();
+        journalOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile, !truncate)));
+        if (truncate) {
+            journalOut.writeInt(JOURNAL_MAGIC);
+            journalOut.writeLong(generation);
+            journalOut.flush();
+        }
+    }
+
+    private void closeJournal() {
+        if (journalOut == null) return;
+        try {
+            journalOut.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not close scores.journal", e);
+        }
+        journalOut = null;
+    }
+
+    private static class Delta {
+        final long msb;
+        final long lsb;
+        final int points;
+        final long timestamp;
+
+        Delta(long msb, long lsb, int points, long timestamp) {
+            this.msb = msb;
+            this.lsb = lsb;
+            this.points = points;
+            this.timestamp = timestamp;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.cozycraftpve;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.EntityType;
+
+// Kill points compiled from the "scoring" section of config.yml.
+// Base points per mob, per-wave multipliers and per-world overrides are folded at load
+// into flat int[] rows indexed by EntityType.ordinal(), one row per wave. Callers resolve a
+// world's Rows once with forWorld() and keep it, so a kill is two array reads with no map
+// lookup. Immutable; a reload builds a new table and swaps it in.
+public final class ScoringTable {
+
+    private static final int TYPE_COUNT = EntityType.values().length;
+
+    private final Rows defaults;
+    private final Map<String, Rows> worlds = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    private ScoringTable(Rows defaults) {
+        this.defaults = defaults;
+    }
+
+    // The points of the given world (matched case-insensitively), or the defaults if it has no
+    // overrides. Look it up once, e.g. when the config is loaded, not per kill.
+    public Rows forWorld(String world) {
+        return worlds.getOrDefault(world, defaults);
+    }
+
+    // Points for killing the given mob during the given 0-based wave in the given world.
+    public int points(String world, int waveIndex, EntityType type) {
+        return forWorld(world).points(waveIndex, type);
+    }
+
+    // Compiles a table for waveCount waves. A null section gives every mob 1 point.
+    public static ScoringTable compile(ConfigurationSection section, int waveCount, Logger logger) {
+        int defaultPoints = section == null ? 1 : section.getInt("default", 1);
+        int[] base = new int[TYPE_COUNT];
+        Arrays.fill(base, defaultPoints);
+        double[] multipliers = new double[0];
+
+        if (section != null) {
+            applyPoints(base, section.getConfigurationSection("base"), logger, "scoring.base");
+
+            ConfigurationSection waveSection = section.getConfigurationSection("wave-multipliers");
+            int rowCount = waveCount;
+            if (waveSection != null) {
+                for (String key : waveSection.getKeys(false)) {
+                    try {
+                        rowCount = Math.max(rowCount, Integer.parseInt(key));
+                    } catch (NumberFormatException e) {
+                        logger.warning("Invalid wave number in scoring.wave-multipliers: " + key);
+                    }
+                }
+            }
+            multipliers = new double[rowCount];
+            Arrays.fill(multipliers, 1.0);
+            if (waveSection != null) {
+                for (String key : waveSection.getKeys(false)) {
+                    try {
+                        int wave = Integer.parseInt(key);
+                        if (wave >= 1) multipliers[wave - 1] = waveSection.getDouble(key, 1.0);
+                    } catch (NumberFormatException ignored) {
+                        // Already reported above.
+                    }
+                }
+            }
+        }
+
+        ScoringTable table = new ScoringTable(new Rows(base, multipliers));
+        ConfigurationSection worldSection = section == null ? null : section.getConfigurationSection("worlds");
+        if (worldSection != null) {
+            for (String world : worldSection.getKeys(false)) {
+                int[] worldBase = base.clone();
+                applyPoints(worldBase, worldSection.getConfigurationSection(world), logger, "scoring.worlds." + world);
+                table.worlds.put(world, new Rows(worldBase, multipliers));
+            }
+        }
+        return table;
+    }
+
+    private static void applyPoints(int[] row, ConfigurationSection section, Logger logger, String context) {
+        if (section == null) return;
+        for (String key : section.getKeys(false)) {
+            try {
+                row[EntityType.valueOf(key.toUpperCase()).ordinal()] = section.getInt(key);
+            } catch (IllegalArgumentException e) {
+                logger.warning("Invalid mob type in " + context + ": " + key);
+            }
+        }
+    }
+
+    // Compiled points of one world.
+    public static final class Rows {
+        final int[] base;
+        final int[][] waves;
+
+        Rows(int[] base, double[] multipliers) {
+            this.base = base;
+            this.waves = new int[multipliers.length][];
+            for (int wave = 0; wave < multipliers.length; wave++) {
+                if (multipliers[wave] == 1.0) {
+                    waves[wave] = base;
+                    continue;
+                }
+                int[] row = new int[base.length];
+                for (int i = 0; i < base.length; i++) {
+                    row[i] = (int) Math.round(base[i] * multipliers[wave]);
+                }
+                waves[wave] = row;
+            }
+        }
+
+        // Points for killing the given mob during the given 0-based wave. Wave indexes outside
+        // the configured waves use the unmultiplied base points.
+        public int points(int waveIndex, EntityType type) {
+            int[] row = waveIndex >= 0 && waveIndex < waves.length ? waves[waveIndex] : base;
+            return row[type.ordinal()];
+        }
+    }
+}
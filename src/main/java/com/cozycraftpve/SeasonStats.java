@@ -0,0 +1,227 @@
+package com.cozycraftpve;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+
+// Season-long rankings across every archived session in sessions/.
+// Archives are scanned in parallel on a fork-join pool, the per-file partial aggregates
+// are merged, and the sorted result is cached until invalidate() is called (when a new
+// session is saved). Callbacks are always run on the main thread.
+public class SeasonStats {
+
+    private final JavaPlugin plugin;
+    private final File sessionFolder;
+    private final ForkJoinPool pool;
+    // Main thread only.
+    private Result cached;
+    private int generation = 0;
+    private boolean scanning = false;
+    private final List<Consumer<Result>> waiting = new ArrayList<>();
+
+    public SeasonStats(JavaPlugin plugin, File sessionFolder) {
+        this.plugin = plugin;
+        this.sessionFolder = sessionFolder;
+        this.pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    // Drops the cached result; the next request rescans the archives.
+    public void invalidate() {
+        cached = null;
+        generation++;
+    }
+
+    // Passes the season stats to callback on the main thread, scanning first if needed.
+    // The callback receives null if the scan failed.
+    public void request(Consumer<Result> callback) {
+        if (cached != null) {
+            callback.accept(cached);
+            return;
+        }
+        waiting.add(callback);
+        if (!scanning) startScan();
+    }
+
+    // Each scan is tagged with the generation it started in. A scan that finishes after an
+    // invalidate() may have missed the new session, so its result is dropped and the waiting
+    // callbacks get a fresh scan instead.
+    private void startScan() {
+        scanning = true;
+        final int scanGeneration = generation;
+        CompletableFuture.supplyAsync(this::scan, pool).whenComplete((result, error) -> {
+            if (!plugin.isEnabled()) return;
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                scanning = false;
+                if (scanGeneration != generation) {
+                    if (!waiting.isEmpty()) startScan();
+                    return;
+                }
+                if (error != null) {
+                    plugin.getLogger().log(Level.SEVERE, "Failed to compute season stats", error);
+                } else {
+                    cached = result;
+                }
+                List<Consumer<Result>> callbacks = new ArrayList<>(waiting);
+                waiting.clear();
+                for (Consumer<Result> waiter : callbacks) {
+                    waiter.accept(error == null ? result : null);
+                }
+            });
+        });
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // Runs on the pool: fan out over the archives, then sort the merged totals.
+    private Result scan() {
+        File[] files = sessionFolder.listFiles((dir, name) -> name.endsWith(SessionArchive.EXTENSION));
+        if (files == null) files = new File[0];
+        // We are already on a pool worker, so forked subtasks run on the same pool.
+        Map<UUID, Totals> merged = files.length == 0 ? new HashMap<>() : new ScanTask(files, 0, files.length).invoke();
+        return new Result(files.length, merged);
+    }
+
+    private class ScanTask extends RecursiveTask<Map<UUID, Totals>> {
+        private final File[] files;
+        private final int from;
+        private final int to;
+
+        ScanTask(File[] files, int from, int to) {
+            this.files = files;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<UUID, Totals> compute() {
+            if (to - from == 1) {
+                return scanFile(files[from]);
+            }
+            int mid = (from + to) >>> 1;
+            ScanTask left = new ScanTask(files, from, mid);
+            left.fork();
+            Map<UUID, Totals> right = new ScanTask(files, mid, to).compute();
+            Map<UUID, Totals> result = left.join();
+            // Merge the smaller partial into the larger one.
+            if (result.size() < right.size()) {
+                Map<UUID, Totals> swap = result;
+                result = right;
+                right = swap;
+            }
+            for (Map.Entry<UUID, Totals> entry : right.entrySet()) {
+                Totals existing = result.get(entry.getKey());
+                if (existing == null) {
+                    result.put(entry.getKey(), entry.getValue());
+                } else {
+                    existing.merge(entry.getValue());
+                }
+            }
+            return result;
+        }
+
+        private Map<UUID, Totals> scanFile(File file) {
+            Map<UUID, Totals> partial = new HashMap<>();
+            try {
+                SessionArchive archive = SessionArchive.open(file);
+                for (int i = 0; i < archive.size(); i++) {
+                    Totals totals = new Totals();
+                    totals.add(archive.scoreAt(i));
+                    partial.put(archive.uuidAt(i), totals);
+                }
+            } catch (IOException e) {
+                plugin.getLogger().warning("Skipping unreadable session archive " + file.getName() + ": " + e.getMessage());
+            }
+            return partial;
+        }
+    }
+
+    private static class Totals {
+        long points;
+        int sessions;
+        int best = Integer.MIN_VALUE;
+
+        void add(int score) {
+            points += score;
+            sessions++;
+            best = Math.max(best, score);
+        }
+
+        void merge(Totals other) {
+            points += other.points;
+            sessions += other.sessions;
+            best = Math.max(best, other.best);
+        }
+    }
+
+    // Immutable season rankings, sorted by total points (highest first).
+    public static class Result {
+        private final int sessionCount;
+        private final UUID[] players;
+        private final long[] totals;
+        private final int[] sessions;
+        private final int[] best;
+
+        Result(int sessionCount, Map<UUID, Totals> merged) {
+            this.sessionCount = sessionCount;
+            List<Map.Entry<UUID, Totals>> sorted = new ArrayList<>(merged.entrySet());
+            sorted.sort((a, b) -> {
+                int cmp = Long.compare(b.getValue().points, a.getValue().points);
+                return cmp != 0 ? cmp : a.getKey().compareTo(b.getKey());
+            });
+            int n = sorted.size();
+            players = new UUID[n];
+            totals = new long[n];
+            sessions = new int[n];
+            best = new int[n];
+            for (int i = 0; i < n; i++) {
+                Map.Entry<UUID, Totals> entry = sorted.get(i);
+                players[i] = entry.getKey();
+                totals[i] = entry.getValue().points;
+                sessions[i] = entry.getValue().sessions;
+                best[i] = entry.getValue().best;
+            }
+        }
+
+        public int getSessionCount() {
+            return sessionCount;
+        }
+
+        public int size() {
+            return players.length;
+        }
+
+        public UUID playerAt(int position) {
+            return players[position];
+        }
+
+        public long totalAt(int position) {
+            return totals[position];
+        }
+
+        public int sessionsAt(int position) {
+            return sessions[position];
+        }
+
+        public int bestAt(int position) {
+            return best[position];
+        }
+
+        public double averageAt(int position) {
+            return (double) totals[position] / sessions[position];
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.cozycraftpve;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Binary archive of one finished session, stored as sessions/<name>.mrs.
+// Layout (big-endian): a 20-byte header followed by fixed-width records sorted by
+// score, highest first.
+//   header: magic "MRSA" (int), version (int), record count (int), created millis (long)
+//   record: UUID msb (long), UUID lsb (long), score (int), deaths (int)
+// Archives are read through a read-only memory mapping, so top-N pages and per-player
+// lookups never build a map of the whole session.
+public final class SessionArchive implements RankedScores {
+
+    public static final String EXTENSION = ".mrs";
+    static final int MAGIC = 0x4D525341; // "MRSA"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 20;
+    static final int RECORD_SIZE = 24;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final long created;
+
+    private SessionArchive(ByteBuffer buffer, int count, long created) {
+        this.buffer = buffer;
+        this.count = count;
+        this.created = created;
+    }
+
+    // Writes the given scores (and deaths, if any) to file, replacing it atomically.
+    public static void write(File file, Map<UUID, Integer> scores, Map<UUID, Integer> deaths) throws IOException {
+        List<Map.Entry<UUID, Integer>> sorted = new ArrayList<>(scores.entrySet());
+        sorted.sort((a, b) -> {
+            int cmp = b.getValue().compareTo(a.getValue());
+            return cmp != 0 ? cmp : a.getKey().compareTo(b.getKey());
+        });
+
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sorted.size());
+            out.writeLong(System.currentTimeMillis());
+            for (Map.Entry<UUID, Integer> entry : sorted) {
+                UUID uuid = entry.getKey();
+                out.writeLong(uuid.getMostSignificantBits());
+                out.writeLong(uuid.getLeastSignificantBits());
+                out.writeInt(entry.getValue());
+                out.writeInt(deaths == null ? 0 : deaths.getOrDefault(uuid, 0));
+            }
+            out.flush();
+            fileOut.getFD().sync();
+        }
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Maps an archive read-only and validates its header.
+    public static SessionArchive open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            long length = channel.size();
+            if (length < HEADER_SIZE) {
+                throw new IOException("Session archive too short: " + file.getName());
+            }
+            // The mapping stays valid after the channel is closed.
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a session archive: " + file.getName());
+            }
+            int version = buffer.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported session archive version " + version + ": " + file.getName());
+            }
+            int count = buffer.getInt(8);
+            if (count < 0 || HEADER_SIZE + (long) count * RECORD_SIZE > length) {
+                throw new IOException("Session archive is truncated: " + file.getName());
+            }
+            return new SessionArchive(buffer, count, buffer.getLong(12));
+        }
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    @Override
+    public UUID uuidAt(int position) {
+        int offset = offset(position);
+        return new UUID(buffer.getLong(offset), buffer.getLong(offset + 8));
+    }
+
+    @Override
+    public int scoreAt(int position) {
+        return buffer.getInt(offset(position) + 16);
+    }
+
+    public int deathsAt(int position) {
+        return buffer.getInt(offset(position) + 20);
+    }
+
+    // Position of the player's record (which is also their 0-based rank), or -1.
+    public int indexOf(UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        for (int i = 0, offset = HEADER_SIZE; i < count; i++, offset += RECORD_SIZE) {
+            if (buffer.getLong(offset) == msb && buffer.getLong(offset + 8) == lsb) return i;
+        }
+        return -1;
+    }
+
+    private int offset(int position) {
+        if (position < 0 || position >= count) {
+            throw new IndexOutOfBoundsException("Position " + position + " of " + count);
+        }
+        return HEADER_SIZE + position * RECORD_SIZE;
+    }
+}
@@ -0,0 +1,63 @@
+package com.cozycraftpve;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.plugin.java.JavaPlugin;
+
+// Decides how many wave mobs may be spawned right now.
+// A 1-tick task measures the time between ticks and keeps an exponentially weighted
+// average, giving a smoothed TPS estimate. Spawning runs at full rate at or above
+// target-tps, stops at or below min-tps and scales linearly in between; the wave's
+// maxAlive cap is applied on top. Whatever is not allowed stays in the spawner's backlog.
+public class SpawnGovernor {
+
+    private static final double NANOS_PER_TICK = 50_000_000.0;
+    // Weight of the newest sample; about the last 40 ticks dominate the average.
+    private static final double SMOOTHING = 0.05;
+
+    private double targetTps = 19.0;
+    private double minTps = 15.0;
+    private double avgTickNanos = NANOS_PER_TICK;
+    private long lastTickNanos = 0;
+
+    public SpawnGovernor(JavaPlugin plugin) {
+        Bukkit.getScheduler().runTaskTimer(plugin, () -> onTick(System.nanoTime()), 1L, 1L);
+    }
+
+    SpawnGovernor() {
+    }
+
+    // Reads "target-tps" and "min-tps" from spawner.throttle in config_spawn.yml.
+    public void configure(ConfigurationSection section) {
+        if (section == null) return;
+        targetTps = section.getDouble("target-tps", 19.0);
+        minTps = Math.min(section.getDouble("min-tps", 15.0), targetTps);
+    }
+
+    void onTick(long now) {
+        if (lastTickNanos != 0) {
+            avgTickNanos += SMOOTHING * ((now - lastTickNanos) - avgTickNanos);
+        }
+        lastTickNanos = now;
+    }
+
+    // Smoothed ticks per second, capped at 20.
+    public double tps() {
+        return Math.min(20.0, 1_000_000_000.0 / avgTickNanos);
+    }
+
+    // How many of the wanted mobs may be spawned now, given the live wave mob count and
+    // the wave's cap (0 or less means uncapped).
+    public int allowance(int wanted, int alive, int maxAlive) {
+        if (wanted <= 0) return 0;
+        int allowed = wanted;
+        if (maxAlive > 0) allowed = Math.min(allowed, Math.max(0, maxAlive - alive));
+
+        double tps = tps();
+        if (tps <= minTps) return 0;
+        if (tps < targetTps) {
+            allowed = (int) (allowed * (tps - minTps) / (targetTps - minTps));
+        }
+        return allowed;
+    }
+}
@@ -0,0 +1,147 @@
+package com.cozycraftpve;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.plugin.java.JavaPlugin;
+
+// Pending wave mob spawns, drained a little every tick.
+// Spawns are bucketed by target chunk; each tick the queue keeps working through the
+// oldest bucket until it is empty or the tick budget is spent, so a large batch is spread
+// over several ticks and each tick touches as few chunks as possible. At least one spawn
+// happens per tick so the queue always makes progress. Main thread only.
+public class SpawnQueue {
+
+    private final JavaPlugin plugin;
+    private final WaveMobRegistry waveMobs;
+    private final Map<Long, ArrayDeque<Pending>> buckets = new LinkedHashMap<>();
+    private long tickBudgetNanos = 2_000_000L;
+    private int depth = 0;
+
+    // Metrics
+    private long spawned = 0;
+    private long lastDrainNanos = 0;
+    private long maxDrainNanos = 0;
+    private double avgDrainNanos = 0;
+    private double avgWaitTicks = 0;
+    private long tick = 0;
+    private final Metrics.Timer drainTimer;
+    private final Metrics.Counter spawnedCounter;
+
+    public SpawnQueue(JavaPlugin plugin, WaveMobRegistry waveMobs, Metrics metrics) {
+        this.plugin = plugin;
+        this.waveMobs = waveMobs;
+        this.drainTimer = metrics.timer("spawn_queue_drain", "Time spent spawning queued wave mobs per tick.");
+        this.spawnedCounter = metrics.counter("mobs_spawned", "Wave mobs spawned.");
+        metrics.gauge("spawn_queue_depth", "Wave mob spawns waiting in the queue.", this::depth);
+        metrics.gauge("spawn_queue_wait_ticks", "Smoothed ticks a spawn waits in the queue.", this::averageWaitTicks);
+        Bukkit.getScheduler().runTaskTimer(plugin, this::drain, 1L, 1L);
+    }
+
+    public void setTickBudgetNanos(long tickBudgetNanos) {
+        this.tickBudgetNanos = Math.max(0, tickBudgetNanos);
+    }
+
+    public void enqueue(EntityType type, Location location, int waveIndex) {
+        long key = BlockPos.chunkKeyAt(location.getBlockX(), location.getBlockZ());
+        ArrayDeque<Pending> bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = new ArrayDeque<>();
+            buckets.put(key, bucket);
+        }
+        bucket.add(new Pending(type, location, waveIndex, tick));
+        depth++;
+    }
+
+    // Drops everything still waiting (the wave ended or was stopped).
+    public void clear() {
+        buckets.clear();
+        depth = 0;
+    }
+
+    // Spawns still waiting in the queue.
+    public int depth() {
+        return depth;
+    }
+
+    public long spawned() {
+        return spawned;
+    }
+
+    // Time spent spawning in the most recent tick that had work.
+    public long lastDrainNanos() {
+        return lastDrainNanos;
+    }
+
+    public long maxDrainNanos() {
+        return maxDrainNanos;
+    }
+
+    // Smoothed per-tick drain time over ticks that had work.
+    public double averageDrainNanos() {
+        return avgDrainNanos;
+    }
+
+    // Smoothed number of ticks a spawn waits between enqueue and spawn.
+    public double averageWaitTicks() {
+        return avgWaitTicks;
+    }
+
+    private void drain() {
+        tick++;
+        if (depth == 0) return;
+        long start = System.nanoTime();
+        long deadline = start + tickBudgetNanos;
+        int done = 0;
+        Iterator<ArrayDeque<Pending>> it = buckets.values().iterator();
+        while (it.hasNext()) {
+            ArrayDeque<Pending> bucket = it.next();
+            while (!bucket.isEmpty() && (done == 0 || System.nanoTime() < deadline)) {
+                Pending pending = bucket.poll();
+                depth--;
+                done++;
+                avgWaitTicks += 0.05 * ((tick - pending.enqueuedTick) - avgWaitTicks);
+                spawn(pending);
+            }
+            if (!bucket.isEmpty()) break;
+            it.remove();
+        }
+        spawned += done;
+        spawnedCounter.add(done);
+        lastDrainNanos = System.nanoTime() - start;
+        drainTimer.record(lastDrainNanos);
+        maxDrainNanos = Math.max(maxDrainNanos, lastDrainNanos);
+        avgDrainNanos += 0.05 * (lastDrainNanos - avgDrainNanos);
+    }
+
+    private void spawn(Pending pending) {
+        World world = pending.location.getWorld();
+        if (world == null) {
+            plugin.getLogger().warning("Attempted to spawn mob in a null world at location: " + pending.location.toString());
+            return;
+        }
+        Entity spawned = world.spawnEntity(pending.location, pending.type);
+        waveMobs.register(spawned, pending.waveIndex);
+    }
+
+    private static class Pending {
+        final EntityType type;
+        final Location location;
+        final int waveIndex;
+        final long enqueuedTick;
+
+        Pending(EntityType type, Location location, int waveIndex, long enqueuedTick) {
+            this.type = type;
+            this.location = location;
+            this.waveIndex = waveIndex;
+            this.enqueuedTick = enqueuedTick;
+        }
+    }
+}
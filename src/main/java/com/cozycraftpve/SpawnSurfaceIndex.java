@@ -0,0 +1,171 @@
+package com.cozycraftpve;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+
+// Standable spawn positions inside the arena, packed with BlockPos into a long[].
+// A position is a solid floor block with two air blocks above it, within the spawn
+// radius and within searchHeight blocks of the spawn point's Y. Chunk snapshots are
+// taken on the main thread and scanned on an async task; the finished array is swapped
+// in on the main thread, so sampling is a single array read. Only chunks that are already
+// loaded are snapshotted: the rest are picked up as they load (e.g. from the arena's
+// chunk tickets) and the index is rescanned once those loads settle. Until the first scan
+// finishes (or if it finds nothing) sample() returns null and callers fall back.
+public class SpawnSurfaceIndex implements Listener {
+
+    // Ticks to wait after an arena chunk loads before rescanning, so a burst of loads
+    // costs one scan.
+    private static final long RESCAN_DELAY_TICKS = 20L;
+
+    private final JavaPlugin plugin;
+    private World world;
+    private long[] positions = new long[0];
+    private int generation = 0;
+
+    // The arena being indexed; snapshots[i * depth + j] is chunk (minChunkX + i, minChunkZ + j),
+    // or null while that chunk is not loaded.
+    private World arenaWorld;
+    private ChunkSnapshot[] snapshots = new ChunkSnapshot[0];
+    private int minChunkX;
+    private int minChunkZ;
+    private int width;
+    private int depth;
+    private int cx;
+    private int cz;
+    private double radius;
+    private int minY;
+    private int maxY;
+    private boolean rescanScheduled = false;
+
+    public SpawnSurfaceIndex(JavaPlugin plugin) {
+        this.plugin = plugin;
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+
+    // Starts a rebuild for the arena around center from its loaded chunks. Never loads chunks.
+    public void rebuild(Location center, double radius, int searchHeight) {
+        World world = center.getWorld();
+        if (world == null) return;
+        int cy = center.getBlockY();
+        int r = (int) Math.ceil(radius);
+        this.arenaWorld = world;
+        this.cx = center.getBlockX();
+        this.cz = center.getBlockZ();
+        this.radius = radius;
+        this.minY = Math.max(world.getMinHeight(), cy - searchHeight);
+        this.maxY = Math.min(world.getMaxHeight() - 3, cy + searchHeight);
+        this.minChunkX = (cx - r) >> 4;
+        this.minChunkZ = (cz - r) >> 4;
+        this.width = ((cx + r) >> 4) - minChunkX + 1;
+        this.depth = ((cz + r) >> 4) - minChunkZ + 1;
+        snapshots = new ChunkSnapshot[width * depth];
+        for (int i = 0; i < width; i++) {
+            for (int j = 0; j < depth; j++) {
+                if (!world.isChunkLoaded(minChunkX + i, minChunkZ + j)) continue;
+                snapshots[i * depth + j] = world.getChunkAt(minChunkX + i, minChunkZ + j).getChunkSnapshot(false, false, false);
+            }
+        }
+        startScan();
+    }
+
+    @EventHandler
+    public void onChunkLoad(ChunkLoadEvent event) {
+        if (event.getWorld() != arenaWorld) return;
+        Chunk chunk = event.getChunk();
+        int i = chunk.getX() - minChunkX;
+        int j = chunk.getZ() - minChunkZ;
+        if (i < 0 || i >= width || j < 0 || j >= depth || snapshots[i * depth + j] != null) return;
+        snapshots[i * depth + j] = chunk.getChunkSnapshot(false, false, false);
+        if (!rescanScheduled) {
+            rescanScheduled = true;
+            Bukkit.getScheduler().runTaskLater(plugin, () -> {
+                rescanScheduled = false;
+                startScan();
+            }, RESCAN_DELAY_TICKS);
+        }
+    }
+
+    private void startScan() {
+        final int build = ++generation;
+        final World world = arenaWorld;
+        final ChunkSnapshot[] current = snapshots.clone();
+        final int minChunkX = this.minChunkX;
+        final int minChunkZ = this.minChunkZ;
+        final int depth = this.depth;
+        final int cx = this.cx;
+        final int cz = this.cz;
+        final double radius = this.radius;
+        final int minY = this.minY;
+        final int maxY = this.maxY;
+        int missing = 0;
+        for (ChunkSnapshot snapshot : current) {
+            if (snapshot == null) missing++;
+        }
+        final int unloaded = missing;
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            long[] found = scan(current, minChunkX, minChunkZ, depth, cx, cz, radius, minY, maxY);
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (build != generation) return; // A newer rebuild was started.
+                this.world = world;
+                this.positions = found;
+                plugin.getLogger().info("Spawn surface index built: " + found.length + " standable positions"
+                        + (unloaded > 0 ? " (" + unloaded + " arena chunks not loaded yet)." : "."));
+            });
+        });
+    }
+
+    public int size() {
+        return positions.length;
+    }
+
+    // Random standable spawn location (centred on the block, feet on the floor), or null if
+    // the index is empty.
+    public Location sample(SplittableRandom random) {
+        return sample(world, positions, random);
+    }
+
+    static Location sample(World world, long[] positions, SplittableRandom random) {
+        if (positions.length == 0) return null;
+        long packed = positions[random.nextInt(positions.length)];
+        return new Location(world, BlockPos.x(packed) + 0.5, BlockPos.y(packed) + 1, BlockPos.z(packed) + 0.5);
+    }
+
+    // Finds floor blocks (packed) inside the disc. Snapshots are laid out [chunkX offset * depth + chunkZ offset];
+    // null snapshots (unloaded chunks) are skipped.
+    static long[] scan(ChunkSnapshot[] snapshots, int minChunkX, int minChunkZ, int depth,
+                       int cx, int cz, double radius, int minY, int maxY) {
+        long[] found = new long[256];
+        int count = 0;
+        int r = (int) Math.ceil(radius);
+        double radiusSq = radius * radius;
+        for (int x = cx - r; x <= cx + r; x++) {
+            for (int z = cz - r; z <= cz + r; z++) {
+                double dx = x + 0.5 - cx;
+                double dz = z + 0.5 - cz;
+                if (dx * dx + dz * dz > radiusSq) continue;
+                ChunkSnapshot chunk = snapshots[((x >> 4) - minChunkX) * depth + ((z >> 4) - minChunkZ)];
+                if (chunk == null) continue; // Not loaded yet.
+                int lx = x & 15;
+                int lz = z & 15;
+                for (int y = minY; y <= maxY; y++) {
+                    if (!chunk.getBlockType(lx, y, lz).isSolid()) continue;
+                    if (!chunk.getBlockType(lx, y + 1, lz).isAir() || !chunk.getBlockType(lx, y + 2, lz).isAir()) continue;
+                    if (count == found.length) found = Arrays.copyOf(found, count * 2);
+                    found[count++] = BlockPos.pack(x, y, z);
+                }
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+}
@@ -0,0 +1,191 @@
+package com.cozycraftpve;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.ExperienceOrb;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.entity.EntitySpawnEvent;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+// Time-sliced removal of wave leftovers: the wave's mobs plus the items and XP orbs dropped
+// by wave mobs inside the arena. Death drops are left to the server and other plugins; an item
+// or orb that spawns where a wave mob just died is only tagged, and a cleanup sweeps tagged
+// drops in the arena that are older than DROP_GRACE_TICKS, so fresh loot can still be picked
+// up. Mobs stay registered until they are removed, so kills during the cleanup still score.
+// At most perTick entities are removed each tick. Starting a cleanup while one is running adds
+// to the same queue; only the latest onDrained callback runs, once the whole queue is empty.
+// Main thread only.
+public class WaveCleanup implements Listener {
+
+    private final JavaPlugin plugin;
+    // Drops younger than this are left for players to pick up.
+    private static final int DROP_GRACE_TICKS = 100;
+    // Wave mob deaths remembered for tagging their drops; drops spawn in the same tick.
+    private static final int RECENT_DEATHS = 64;
+    private static final double DROP_RANGE_SQ = 2.0 * 2.0;
+
+    private final WaveMobRegistry waveMobs;
+    private final NamespacedKey dropKey;
+    // Ring of recent wave mob deaths: world, position and world full time.
+    private final World[] deathWorlds = new World[RECENT_DEATHS];
+    private final double[] deathX = new double[RECENT_DEATHS];
+    private final double[] deathY = new double[RECENT_DEATHS];
+    private final double[] deathZ = new double[RECENT_DEATHS];
+    private final long[] deathTimes = new long[RECENT_DEATHS];
+    private int deaths = 0;
+    private final ArrayDeque<Entity> queue = new ArrayDeque<>();
+    private int perTick = 50;
+    private int removed = 0;
+    private int total = 0;
+    private long started = 0;
+    private int ticks = 0;
+    private Runnable onDrained;
+    private BukkitTask task;
+    private final Metrics.Timer stepTimer;
+    private final Metrics.Counter removedCounter;
+    private final GameEventLog.Category events;
+
+    public WaveCleanup(JavaPlugin plugin, WaveMobRegistry waveMobs, Metrics metrics, GameEventLog.Category events) {
+        this.plugin = plugin;
+        this.waveMobs = waveMobs;
+        this.dropKey = new NamespacedKey(plugin, "wave_drop");
+        this.events = events;
+        this.stepTimer = metrics.timer("wave_cleanup_step", "Time spent removing wave leftovers per tick.");
+        this.removedCounter = metrics.counter("wave_cleanup_removed", "Wave mobs, items and XP orbs removed by cleanups.");
+        metrics.gauge("wave_cleanup_remaining", "Entities still waiting to be removed by the wave cleanup.", this::remaining);
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+
+    public void setPerTick(int perTick) {
+        this.perTick = Math.max(1, perTick);
+    }
+
+    // Queues the given mobs and the wave drops within radius of center for removal.
+    // onDrained (may be null) runs on the tick the last entity is removed.
+    public void start(Entity[] mobs, Location center, double radius, Runnable onDrained) {
+        for (Entity mob : mobs) queue.add(mob);
+        int drops = center == null ? 0 : queueDrops(center, radius);
+        total += mobs.length + drops;
+        this.onDrained = onDrained;
+        if (task == null) {
+            started = System.currentTimeMillis();
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::step, 0L, 1L);
+        }
+    }
+
+    public boolean isRunning() {
+        return task != null;
+    }
+
+    // Entities still waiting to be removed.
+    public int remaining() {
+        return queue.size();
+    }
+
+    // Remembers where a wave mob died. Runs before the registry forgets the mob and leaves the
+    // event's drops and XP alone.
+    @EventHandler(priority = EventPriority.HIGHEST)
+    public void onWaveMobDeath(EntityDeathEvent event) {
+        LivingEntity mob = event.getEntity();
+        if (!waveMobs.isWaveMob(mob)) return;
+        Location location = mob.getLocation();
+        World world = location.getWorld();
+        if (world == null) return;
+        int i = deaths++ & (RECENT_DEATHS - 1);
+        deathWorlds[i] = world;
+        deathX[i] = location.getX();
+        deathY[i] = location.getY();
+        deathZ[i] = location.getZ();
+        deathTimes[i] = world.getFullTime();
+    }
+
+    // Tags items and XP orbs that spawn where a wave mob died this tick or the last. Item
+    // spawns arrive here too, as ItemSpawnEvent shares EntitySpawnEvent's handlers.
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDropSpawn(EntitySpawnEvent event) {
+        Entity entity = event.getEntity();
+        if (!(entity instanceof Item) && !(entity instanceof ExperienceOrb)) return;
+        if (deaths == 0 || !nearRecentDeath(event.getLocation())) return;
+        entity.getPersistentDataContainer().set(dropKey, PersistentDataType.BYTE, (byte) 1);
+    }
+
+    private boolean nearRecentDeath(Location location) {
+        World world = location.getWorld();
+        if (world == null) return false;
+        long now = world.getFullTime();
+        for (int i = 0; i < Math.min(deaths, RECENT_DEATHS); i++) {
+            if (deathWorlds[i] != world || now - deathTimes[i] > 1) continue;
+            double dx = location.getX() - deathX[i];
+            double dy = location.getY() - deathY[i];
+            double dz = location.getZ() - deathZ[i];
+            if (dx * dx + dy * dy + dz * dz <= DROP_RANGE_SQ) return true;
+        }
+        return false;
+    }
+
+    // Queues tagged wave drops inside the arena disc that are past the grace period.
+    private int queueDrops(Location center, double radius) {
+        World world = center.getWorld();
+        if (world == null) return 0;
+        double radiusSq = radius * radius;
+        Collection<Entity> found = world.getNearbyEntities(center, radius, world.getMaxHeight() - world.getMinHeight(), radius,
+                entity -> (entity instanceof Item || entity instanceof ExperienceOrb)
+                        && entity.getTicksLived() >= DROP_GRACE_TICKS
+                        && entity.getPersistentDataContainer().get(dropKey, PersistentDataType.BYTE) != null);
+        int count = 0;
+        for (Entity entity : found) {
+            Location location = entity.getLocation();
+            double dx = location.getX() - center.getX();
+            double dz = location.getZ() - center.getZ();
+            if (dx * dx + dz * dz > radiusSq) continue;
+            queue.add(entity);
+            count++;
+        }
+        return count;
+    }
+
+    private void step() {
+        long start = System.nanoTime();
+        for (int i = 0; i < perTick && !queue.isEmpty(); i++) {
+            Entity entity = queue.poll();
+            // Forgotten only now, so a mob killed while the cleanup runs still scores.
+            waveMobs.unregister(entity);
+            if (entity.isValid()) {
+                entity.remove();
+                removed++;
+                removedCounter.inc();
+            }
+        }
+        stepTimer.since(start);
+        if (!queue.isEmpty()) {
+            // Progress once a second for long cleanups.
+            if (++ticks % 20 == 0) {
+                events.debug("progress", "processed", total - queue.size(), "total", total);
+            }
+            return;
+        }
+        task.cancel();
+        task = null;
+        plugin.getLogger().info("Wave cleanup finished: removed " + removed + " of " + total + " entities in "
+                + (System.currentTimeMillis() - started) + " ms.");
+        removed = 0;
+        total = 0;
+        ticks = 0;
+        Runnable callback = onDrained;
+        onDrained = null;
+        if (callback != null) callback.run();
+    }
+}
@@ -0,0 +1,195 @@
+package com.cozycraftpve;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.entity.EntityRemoveEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+
+// Live mobs spawned by the wave spawner, keyed by entity ID.
+// An open-addressing int hash (linear probing) maps the ID to a dense slot; the entity,
+// its UUID, wave index and spawn time sit in parallel arrays at that slot, so lookups
+// never box and clearing a wave walks only the tracked mobs. The UUID is checked on
+// lookup so a reused entity ID is never mistaken for a wave mob. Main thread only.
+public class WaveMobRegistry implements Listener {
+
+    private int[] table = new int[64];  // dense slot + 1, 0 = empty
+    private int[] ids = new int[32];
+    private Entity[] entities = new Entity[32];
+    private long[] uuidMost = new long[32];
+    private long[] uuidLeast = new long[32];
+    private int[] waves = new int[32];
+    private long[] spawnedAt = new long[32];
+    private int size = 0;
+
+    public WaveMobRegistry(JavaPlugin plugin) {
+        this();
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+    }
+
+    WaveMobRegistry() {
+    }
+
+    // Starts tracking a freshly spawned mob for the given 0-based wave.
+    public void register(Entity entity, int waveIndex) {
+        int id = entity.getEntityId();
+        int slot = find(id);
+        if (slot < 0) {
+            if (size == ids.length) growSlots();
+            if ((size + 1) * 2 > table.length) rehash(table.length * 2);
+            slot = size++;
+            ids[slot] = id;
+            table[probe(id)] = slot + 1;
+        }
+        UUID uuid = entity.getUniqueId();
+        entities[slot] = entity;
+        uuidMost[slot] = uuid.getMostSignificantBits();
+        uuidLeast[slot] = uuid.getLeastSignificantBits();
+        waves[slot] = waveIndex;
+        spawnedAt[slot] = System.currentTimeMillis();
+    }
+
+    public boolean isWaveMob(Entity entity) {
+        return slotOf(entity) >= 0;
+    }
+
+    // Wave the mob was spawned in, or -1 if it is not a tracked wave mob.
+    public int waveOf(Entity entity) {
+        int slot = slotOf(entity);
+        return slot < 0 ? -1 : waves[slot];
+    }
+
+    // Spawn time in epoch millis, or -1 if the mob is not tracked.
+    public long spawnedAt(Entity entity) {
+        int slot = slotOf(entity);
+        return slot < 0 ? -1 : spawnedAt[slot];
+    }
+
+    // Number of wave mobs currently alive.
+    public int alive() {
+        return size;
+    }
+
+    public void unregister(Entity entity) {
+        int slot = slotOf(entity);
+        if (slot >= 0) removeSlot(slot);
+    }
+
+    // Every tracked mob, for removal over several ticks. They stay registered until each one
+    // is removed, dies or despawns.
+    public Entity[] snapshot() {
+        return Arrays.copyOf(entities, size);
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        Arrays.fill(entities, 0, size, null);
+        size = 0;
+    }
+
+    // Runs after App.onMobKill has read the wave index.
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityDeath(EntityDeathEvent event) {
+        unregister(event.getEntity());
+    }
+
+    // Despawns, plugin removals, chunk unloads and so on.
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveEvent event) {
+        unregister(event.getEntity());
+    }
+
+    private int slotOf(Entity entity) {
+        if (size == 0) return -1;
+        int slot = find(entity.getEntityId());
+        if (slot < 0) return -1;
+        UUID uuid = entity.getUniqueId();
+        if (uuidMost[slot] != uuid.getMostSignificantBits() || uuidLeast[slot] != uuid.getLeastSignificantBits()) {
+            return -1;
+        }
+        return slot;
+    }
+
+    // Dense slot for the entity ID, or -1.
+    private int find(int id) {
+        int mask = table.length - 1;
+        for (int i = hash(id) & mask; table[i] != 0; i = (i + 1) & mask) {
+            if (ids[table[i] - 1] == id) return table[i] - 1;
+        }
+        return -1;
+    }
+
+    // First empty table index for an ID that is not present.
+    private int probe(int id) {
+        int mask = table.length - 1;
+        int i = hash(id) & mask;
+        while (table[i] != 0) i = (i + 1) & mask;
+        return i;
+    }
+
+    private void removeSlot(int slot) {
+        deleteFromTable(ids[slot]);
+        int last = --size;
+        if (slot != last) {
+            // Move the last entry into the hole and repoint its table entry.
+            int lastId = ids[last];
+            ids[slot] = lastId;
+            entities[slot] = entities[last];
+            uuidMost[slot] = uuidMost[last];
+            uuidLeast[slot] = uuidLeast[last];
+            waves[slot] = waves[last];
+            spawnedAt[slot] = spawnedAt[last];
+            int mask = table.length - 1;
+            int i = hash(lastId) & mask;
+            while (table[i] != last + 1) i = (i + 1) & mask;
+            table[i] = slot + 1;
+        }
+        entities[last] = null;
+    }
+
+    // Linear-probing delete with backward shift, so no tombstones are needed.
+    private void deleteFromTable(int id) {
+        int mask = table.length - 1;
+        int i = hash(id) & mask;
+        while (ids[table[i] - 1] != id) i = (i + 1) & mask;
+        int hole = i;
+        for (int j = (hole + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+            int home = hash(ids[table[j] - 1]) & mask;
+            // Shift back unless the entry's home lies cyclically in (hole, j].
+            boolean stays = hole <= j ? (home > hole && home <= j) : (home > hole || home <= j);
+            if (!stays) {
+                table[hole] = table[j];
+                hole = j;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    private void growSlots() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        entities = Arrays.copyOf(entities, capacity);
+        uuidMost = Arrays.copyOf(uuidMost, capacity);
+        uuidLeast = Arrays.copyOf(uuidLeast, capacity);
+        waves = Arrays.copyOf(waves, capacity);
+        spawnedAt = Arrays.copyOf(spawnedAt, capacity);
+    }
+
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        for (int slot = 0; slot < size; slot++) {
+            table[probe(ids[slot])] = slot + 1;
+        }
+    }
+
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
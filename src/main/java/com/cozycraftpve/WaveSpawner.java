@@ -16,17 +16,40 @@ import org.bukkit.scheduler.BukkitTask;
 
 public class WaveSpawner {
 
+    private static final int FIRST_COUNTDOWN_SECONDS = 15;
+    private static final int INTERMISSION_SECONDS = 10;
+
     private final JavaPlugin plugin;
+    private final WaveMobRegistry waveMobs;
+    private final GameRandom random;
+    private final SpawnGovernor governor;
+    private final SpawnQueue spawnQueue;
+    private final SpawnSurfaceIndex surfaceIndex;
+    private final WaveCleanup cleanup;
     private Location spawnPoint;
     private double radius;
     private List<Wave> waves;
-    private int currentWaveIndex = 0;
-    private BukkitTask currentSpawnTask;
-    private BukkitTask waveEndTask;
-    private BukkitTask waveCountdownTask; // Periodic countdown during wave
+    // Drives countdowns, waves and cleanups from a single per-tick game loop task.
+    private final WaveTimeline timeline = new WaveTimeline(new TimelineHooks());
+    private BukkitTask gameLoop;
+    private int[] backlog = new int[0]; // Mobs per type still to spawn in the active wave
+    private Runnable onFinished = () -> { };
+    private final Metrics.Timer tickTimer;
+    private final GameEventLog.Category spawnEvents;
 
-    public WaveSpawner(JavaPlugin plugin) {
+    public WaveSpawner(JavaPlugin plugin, WaveMobRegistry waveMobs, GameRandom random, Metrics metrics, GameEventLog events) {
         this.plugin = plugin;
+        this.waveMobs = waveMobs;
+        this.random = random;
+        this.governor = new SpawnGovernor(plugin);
+        this.spawnQueue = new SpawnQueue(plugin, waveMobs, metrics);
+        this.surfaceIndex = new SpawnSurfaceIndex(plugin);
+        this.cleanup = new WaveCleanup(plugin, waveMobs, metrics, events.category("cleanup"));
+        this.spawnEvents = events.category("spawn");
+        this.tickTimer = metrics.timer("wave_tick", "Time spent in the wave game loop per tick, including spawn scheduling.");
+        metrics.gauge("server_tps", "Smoothed server TPS as seen by the spawn governor.", governor::tps);
+        metrics.gauge("wave_mobs_alive", "Live mobs spawned by the current wave.", waveMobs::alive);
+        metrics.gauge("spawn_surface_positions", "Standable positions in the spawn surface index.", surfaceIndex::size);
         loadConfig();
     }
 
@@ -56,6 +79,11 @@ public class WaveSpawner {
         // Read radius
         radius = config.getDouble("spawner.radius", 10);
         plugin.getLogger().info("Spawn radius loaded: " + radius);
+        // Index standable floor within spawner.surface-search-height blocks of the spawn point's Y.
+        surfaceIndex.rebuild(spawnPoint, radius, config.getInt("spawner.surface-search-height", 8));
+        cleanup.setPerTick(config.getInt("spawner.cleanup-per-tick", 50));
+        governor.configure(config.getConfigurationSection("spawner.throttle"));
+        spawnQueue.setTickBudgetNanos((long) (config.getDouble("spawner.spawn-tick-budget-ms", 2.0) * 1_000_000L));
 
         // Load waves
         waves = new ArrayList<>();
@@ -69,10 +97,44 @@ public class WaveSpawner {
             int duration = (int) map.get("duration");           // in seconds
             int spawnInterval = (int) map.get("spawnInterval");   // in seconds
             Map<String, Object> mobs = (Map<String, Object>) map.get("mobs");
-            Wave wave = new Wave(name, duration, spawnInterval, mobs);
+            // Cap on live wave mobs; absent or 0 means uncapped.
+            int maxAlive = map.get("maxAlive") instanceof Number ? ((Number) map.get("maxAlive")).intValue() : 0;
+            Wave wave = new Wave(name, duration, spawnInterval, maxAlive, mobs);
+            parseMobs(wave);
             waves.add(wave);
             plugin.getLogger().info("Loaded wave: " + name + " | Duration: " + duration +
-                    "s, Interval: " + spawnInterval + "s, Mobs: " + mobs.toString());
+                    "s, Interval: " + spawnInterval + "s, Max alive: " + (maxAlive > 0 ? maxAlive : "unlimited") +
+                    ", Mobs: " + mobs.toString());
+        }
+    }
+
+    // Resolves the wave's mob names once, so the spawn task works on plain arrays.
+    private void parseMobs(Wave wave) {
+        List<EntityType> types = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : wave.mobs.entrySet()) {
+            String mobName = entry.getKey().toUpperCase();
+            int count;
+            try {
+                count = Integer.parseInt(entry.getValue().toString());
+            } catch (NumberFormatException ex) {
+                plugin.getLogger().warning("Invalid count for mob: " + mobName);
+                continue;
+            }
+            EntityType type;
+            try {
+                type = EntityType.valueOf(mobName);
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("Invalid mob type in config: " + mobName);
+                continue;
+            }
+            types.add(type);
+            counts.add(count);
+        }
+        wave.types = types.toArray(new EntityType[0]);
+        wave.counts = new int[counts.size()];
+        for (int i = 0; i < wave.counts.length; i++) {
+            wave.counts[i] = counts.get(i);
         }
     }
 
@@ -81,179 +143,220 @@ public class WaveSpawner {
         plugin.getLogger().info("WaveSpawner configuration reloaded.");
     }
 
+    public Location getSpawnPoint() {
+        return spawnPoint;
+    }
+
+    public double getRadius() {
+        return radius;
+    }
+
+    // Called once the final wave has ended.
+    public void setOnFinished(Runnable onFinished) {
+        this.onFinished = onFinished;
+    }
+
+    public int getWaveCount() {
+        return waves == null ? 0 : waves.size();
+    }
+
+    // 0-based index of the current (or most recent) wave.
+    public int getCurrentWaveIndex() {
+        return timeline.wave();
+    }
+
     // Starts the entire wave sequence with an initial countdown.
     public void startWaves() {
         if (waves == null || waves.isEmpty()) {
             plugin.getLogger().warning("No waves configured.");
             return;
         }
-        currentWaveIndex = 0;
+        int[] durations = new int[waves.size()];
+        for (int i = 0; i < durations.length; i++) {
+            durations[i] = waves.get(i).duration;
+        }
         // Countdown before the first wave starts.
         Bukkit.broadcastMessage("§6GAME HAS STARTED GO!");
-        startCountdown(15, "First wave starting in", () -> startWave(waves.get(currentWaveIndex)));
+        timeline.start(durations, FIRST_COUNTDOWN_SECONDS, INTERMISSION_SECONDS);
+        if (gameLoop == null) {
+            gameLoop = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
     }
 
-    // Stops any active wave tasks.
+    // Stops the game loop and clears the current wave.
     public void stopWaves() {
-        if (currentSpawnTask != null) {
-            currentSpawnTask.cancel();
-            currentSpawnTask = null;
-        }
-        if (waveEndTask != null) {
-            waveEndTask.cancel();
-            waveEndTask = null;
-        }
-        if (waveCountdownTask != null) {
-            waveCountdownTask.cancel();
-            waveCountdownTask = null;
-        }
-        killAllHostileMobs();
+        timeline.stop();
+        stopGameLoop();
+        backlog = new int[0];
+        clearWave(null);
         plugin.getLogger().info("Wave spawning stopped.");
     }
 
-    // Starts an individual wave.
-    private void startWave(Wave wave) {
-        Bukkit.broadcastMessage("§6Wave " + wave.name + " is starting now! Duration: " + wave.duration + " seconds.");
-        // Start periodic countdown for this wave.
-        final long waveStartTime = System.currentTimeMillis();
-        final long waveDurationMillis = wave.duration * 1000L;
-        if (waveCountdownTask != null) waveCountdownTask.cancel();
-        waveCountdownTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            long elapsed = System.currentTimeMillis() - waveStartTime;
-            long remaining = (waveDurationMillis - elapsed) / 1000;
-            if (remaining < 0) remaining = 0;
-            Bukkit.broadcastMessage("§e" + wave.name + " - " + remaining + " seconds remaining.");
-        }, 0L, 300L); // every 15 seconds (300 ticks)
-
-        long waveDurationTicks = wave.duration * 20L;
-        long spawnIntervalTicks = wave.spawnInterval * 20L;
-
-        // Schedule mob spawning repeatedly.
-        currentSpawnTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            plugin.getLogger().info("Spawning mobs for wave: " + wave.name);
-            for (Map.Entry<String, Object> entry : wave.mobs.entrySet()) {
-                String mobName = entry.getKey().toUpperCase();
-                int count;
-                try {
-                    count = Integer.parseInt(entry.getValue().toString());
-                } catch (NumberFormatException ex) {
-                    plugin.getLogger().warning("Invalid count for mob: " + mobName);
-                    continue;
-                }
-                EntityType type;
-                try {
-                    type = EntityType.valueOf(mobName);
-                } catch (IllegalArgumentException e) {
-                    plugin.getLogger().warning("Invalid mob type in config: " + mobName);
-                    continue;
-                }
-                for (int i = 0; i < count; i++) {
-                    Location loc = getRandomLocationInRadius(spawnPoint, radius);
-                    spawnMob(type, loc);
-                }
+    public void pauseWaves() {
+        timeline.pause();
+        Bukkit.broadcastMessage("§eWaves paused.");
+    }
+
+    public void resumeWaves() {
+        timeline.resume();
+        Bukkit.broadcastMessage("§eWaves resumed.");
+    }
+
+    // Ends the active wave now, or skips the one being counted down to.
+    public void skipWave() {
+        timeline.skipWave();
+    }
+
+    // Makes the given 1-based wave the next one; an active wave is ended first. Throws
+    // IllegalStateException when no game is running.
+    public void jumpToWave(int waveNumber) {
+        timeline.jumpTo(waveNumber - 1);
+    }
+
+    // Phase of the game, for status messages.
+    public String describeState() {
+        if (timeline.phase() == WaveTimeline.Phase.IDLE) return "No game running.";
+        if (timeline.phase() == WaveTimeline.Phase.FINISHED) return "All waves completed.";
+        Wave wave = waves.get(timeline.wave());
+        return wave.name + ": " + timeline.phase().name().toLowerCase() + ", " + timeline.secondsLeft() + "s left"
+                + (timeline.isPaused() ? " (paused)" : "") + ".";
+    }
+
+    private void tick() {
+        long start = System.nanoTime();
+        timeline.tick();
+        tickTimer.since(start);
+    }
+
+    private void stopGameLoop() {
+        if (gameLoop != null) {
+            gameLoop.cancel();
+            gameLoop = null;
+        }
+    }
+
+    // Bukkit side of the wave timeline: announcements, spawning and cleanup.
+    private class TimelineHooks implements WaveTimeline.Hooks {
+
+        @Override
+        public void countdown(int index, int secondsLeft, boolean first) {
+            String prefix = first ? "First wave starting in" : "Next wave starting in";
+            if (!first && secondsLeft == INTERMISSION_SECONDS) {
+                Bukkit.broadcastMessage("§6Next wave will start in " + INTERMISSION_SECONDS + " seconds.");
+            }
+            if (secondsLeft > 0) {
+                Bukkit.broadcastMessage("§e" + prefix + " " + secondsLeft + "...");
+            } else {
+                Bukkit.broadcastMessage("§e" + prefix + " Go!");
             }
-        }, 0L, spawnIntervalTicks);
+        }
+
+        @Override
+        public void waveStarted(int index) {
+            Wave wave = waves.get(index);
+            Bukkit.broadcastMessage("§6Wave " + wave.name + " is starting now! Duration: " + wave.duration + " seconds.");
+            backlog = new int[wave.types.length];
+        }
 
-        // Schedule wave end.
-        waveEndTask = Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            if (currentSpawnTask != null) {
-                currentSpawnTask.cancel();
-                currentSpawnTask = null;
+        @Override
+        public void waveSecond(int index, int secondsElapsed, int secondsLeft) {
+            Wave wave = waves.get(index);
+            if (secondsElapsed % 15 == 0) {
+                Bukkit.broadcastMessage("§e" + wave.name + " - " + secondsLeft + " seconds remaining.");
             }
-            if (waveCountdownTask != null) {
-                waveCountdownTask.cancel();
-                waveCountdownTask = null;
+            // Every spawnInterval seconds a full batch joins the backlog. Once a second the
+            // governor decides how much of the backlog may spawn, so mobs held back while the
+            // server is behind or the wave is at maxAlive still arrive later in the wave.
+            if (secondsElapsed % Math.max(1, wave.spawnInterval) == 0) {
+                for (int i = 0; i < backlog.length; i++) {
+                    backlog[i] += wave.counts[i];
+                }
+                spawnEvents.info("batch", "wave", wave.name, "alive", waveMobs.alive(), "queued", spawnQueue.depth(),
+                        "tps", governor.tps(), "drain_avg_ms", spawnQueue.averageDrainNanos() / 1e6,
+                        "drain_max_ms", spawnQueue.maxDrainNanos() / 1e6);
             }
-            // Kill all hostile mobs spawned during this wave.
-            killAllHostileMobs();
-            Bukkit.broadcastMessage("§6" + wave.name + " ended.");
-            
+            drainBacklog(wave, backlog, index);
+        }
+
+        @Override
+        public void waveEnded(int index) {
+            backlog = new int[0];
+            Bukkit.broadcastMessage("§6" + waves.get(index).name + " ended.");
+
             // Reload chest loot and announce it.
             Bukkit.broadcastMessage("§eReloading chest loot...");
             Bukkit.dispatchCommand(Bukkit.getConsoleSender(), "reloadloot");
-            
-            currentWaveIndex++;
-            if (currentWaveIndex < waves.size()) {
-                // Announce and countdown for the next wave.
-                Bukkit.broadcastMessage("§6Next wave will start in 10 seconds.");
-                startCountdown(10, "Next wave starting in", () -> startWave(waves.get(currentWaveIndex)));
-            } else {
-                // Final wave complete.
-                killAllHostileMobs();
-                Bukkit.broadcastMessage("§6All waves completed. Game finished!");
-            }
-        }, waveDurationTicks);
 
+            // Remove this wave's mobs and drops over the next few ticks; the next countdown
+            // only starts once that is done, so the two never share a tick.
+            clearWave(timeline::cleanupDone);
+        }
 
+        @Override
+        public void finished() {
+            // Final wave complete.
+            stopGameLoop();
+            Bukkit.broadcastMessage("§6All waves completed. Game finished!");
+            onFinished.run();
+        }
     }
 
-    private void killAllHostileMobs() {
-        World world = spawnPoint.getWorld();
-        if (world != null) {
-            world.getEntities().stream()
-                .filter(entity ->
-                    (entity instanceof org.bukkit.entity.Monster) ||
-                    (entity.getType() == EntityType.MAGMA_CUBE) ||
-                    (entity.getType() == EntityType.PHANTOM))
-                .forEach(entity -> entity.remove());
-            plugin.getLogger().info("All hostile mobs in world " + world.getName() + " have been removed.");
-        } else {
-            plugin.getLogger().warning("Cannot kill hostile mobs, spawnPoint's world is null.");
+    // Spawns as much of the backlog as the governor allows, round-robin over mob types so a
+    // throttled batch keeps the wave's mix.
+    private void drainBacklog(Wave wave, int[] backlog, int waveIndex) {
+        int pending = 0;
+        for (int count : backlog) pending += count;
+        // Queued spawns count as alive so the cap is not overshot while the queue drains.
+        int allowed = governor.allowance(pending, waveMobs.alive() + spawnQueue.depth(), wave.maxAlive);
+        while (allowed > 0) {
+            for (int i = 0; i < backlog.length && allowed > 0; i++) {
+                if (backlog[i] == 0) continue;
+                backlog[i]--;
+                allowed--;
+                spawnQueue.enqueue(wave.types[i], nextSpawnLocation(), waveIndex);
+            }
         }
     }
 
-    // Spawns a mob of the given type at the given location and tags it.
-    private void spawnMob(EntityType type, Location location) {
-        World world = location.getWorld();
-        if (world != null) {
-            org.bukkit.entity.Entity spawned = world.spawnEntity(location, type);
-            spawned.setMetadata("waveSpawner", new org.bukkit.metadata.FixedMetadataValue(plugin, true));
-        } else {
-            plugin.getLogger().warning("Attempted to spawn mob in a null world at location: " + location.toString());
-        }
+    // Removes the mobs this spawner created, plus the items and XP orbs they dropped in the
+    // arena, over several ticks. Other mobs in the world are left alone. onDrained (may be null) runs when done.
+    private void clearWave(Runnable onDrained) {
+        spawnQueue.clear();
+        cleanup.start(waveMobs.snapshot(), spawnPoint, radius, onDrained);
+    }
+
+    // Random standable location from the surface index, or a point in the disc while the
+    // index is still building or found nothing.
+    private Location nextSpawnLocation() {
+        Location location = surfaceIndex.sample(random.spawns());
+        return location != null ? location : getRandomLocationInRadius(spawnPoint, radius);
     }
 
     // Calculates a random location within the radius from the center.
     private Location getRandomLocationInRadius(Location center, double radius) {
-        double angle = Math.random() * 2 * Math.PI;
-        double distance = Math.random() * radius;
+        double angle = random.spawns().nextDouble() * 2 * Math.PI;
+        double distance = random.spawns().nextDouble() * radius;
         double xOffset = Math.cos(angle) * distance;
         double zOffset = Math.sin(angle) * distance;
         Location randomLoc = center.clone().add(xOffset, 0, zOffset);
         return randomLoc;
     }
 
-    // Helper method to start a countdown in chat.
-    private void startCountdown(int seconds, String messagePrefix, Runnable callback) {
-        final int[] counter = {seconds};
-        final BukkitTask[] countdownTask = new BukkitTask[1];
-        countdownTask[0] = Bukkit.getScheduler().runTaskTimer(plugin, new Runnable() {
-            int count = counter[0];
-            @Override
-            public void run() {
-                if (count > 0) {
-                    Bukkit.broadcastMessage("§e" + messagePrefix + " " + count + "...");
-                    count--;
-                } else {
-                    Bukkit.broadcastMessage("§e" + messagePrefix + " Go!");
-                    callback.run();
-                    countdownTask[0].cancel();
-                }
-            }
-        }, 0L, 20L); // Every second
-    }
-
     // Inner class representing a wave.
     private static class Wave {
         String name;
         int duration;      // in seconds
         int spawnInterval; // in seconds
+        int maxAlive;      // live wave mob cap, 0 = uncapped
         Map<String, Object> mobs; // mob type to count mapping
+        EntityType[] types; // parsed from mobs
+        int[] counts;       // per spawn interval, parallel to types
 
-        public Wave(String name, int duration, int spawnInterval, Map<String, Object> mobs) {
+        public Wave(String name, int duration, int spawnInterval, int maxAlive, Map<String, Object> mobs) {
             this.name = name;
             this.duration = duration;
             this.spawnInterval = spawnInterval;
+            this.maxAlive = maxAlive;
             this.mobs = mobs;
         }
     }
@@ -0,0 +1,223 @@
+package com.cozycraftpve;
+
+// Tick-driven state machine for a game's waves. Knows nothing about Bukkit: the owner calls
+// tick() once per server tick (or from a fake clock in tests) and reacts through Hooks.
+//
+//   COUNTDOWN -> ACTIVE -> CLEANUP -> INTERMISSION -> ACTIVE -> ... -> CLEANUP -> FINISHED
+//
+// COUNTDOWN is the lead-in before the first wave and INTERMISSION the countdown between
+// waves; both announce every second. ACTIVE reports each elapsed second of the wave and
+// ends after the wave's duration. CLEANUP waits until the owner calls cleanupDone().
+// All times are in ticks, so they follow the server clock under lag and stop while paused.
+final class WaveTimeline {
+
+    static final int TICKS_PER_SECOND = 20;
+
+    enum Phase { IDLE, COUNTDOWN, ACTIVE, CLEANUP, INTERMISSION, FINISHED }
+
+    interface Hooks {
+        // Once a second while counting down to wave; secondsLeft reaches 0 just before it starts.
+        // first is true for the lead-in to the first wave of the game.
+        void countdown(int wave, int secondsLeft, boolean first);
+
+        void waveStarted(int wave);
+
+        // Once a second while the wave is active, starting at 0 on the tick it starts.
+        void waveSecond(int wave, int secondsElapsed, int secondsLeft);
+
+        // The wave's time is up (or it was skipped); call cleanupDone() once its leftovers are gone.
+        void waveEnded(int wave);
+
+        void finished();
+    }
+
+    private final Hooks hooks;
+    private int[] durations = new int[0]; // ticks per wave
+    private int firstCountdown;           // seconds
+    private int intermission;             // seconds
+    private Phase phase = Phase.IDLE;
+    private int wave = 0;
+    private int next = 0;                 // wave to run after the current cleanup
+    private int phaseTick = 0;
+    private boolean paused = false;
+
+    WaveTimeline(Hooks hooks) {
+        this.hooks = hooks;
+    }
+
+    // Starts a game with the given wave durations (in seconds).
+    void start(int[] waveSeconds, int firstCountdownSeconds, int intermissionSeconds) {
+        durations = new int[waveSeconds.length];
+        for (int i = 0; i < waveSeconds.length; i++) {
+            durations[i] = Math.max(1, waveSeconds[i]) * TICKS_PER_SECOND;
+        }
+        firstCountdown = Math.max(0, firstCountdownSeconds);
+        intermission = Math.max(0, intermissionSeconds);
+        paused = false;
+        wave = 0;
+        if (durations.length == 0) {
+            finish();
+            return;
+        }
+        enter(Phase.COUNTDOWN);
+    }
+
+    void stop() {
+        phase = Phase.IDLE;
+        paused = false;
+    }
+
+    void tick() {
+        if (paused) return;
+        switch (phase) {
+            case COUNTDOWN:
+            case INTERMISSION:
+                tickCountdown();
+                break;
+            case ACTIVE:
+                tickActive();
+                break;
+            default:
+                break;
+        }
+    }
+
+    void pause() {
+        paused = true;
+    }
+
+    void resume() {
+        paused = false;
+    }
+
+    // Ends the active wave now, or skips the wave being counted down to.
+    void skipWave() {
+        switch (phase) {
+            case ACTIVE:
+                next = wave + 1;
+                enterCleanup();
+                break;
+            case COUNTDOWN:
+            case INTERMISSION:
+                if (wave + 1 < durations.length) {
+                    wave++;
+                    enter(Phase.INTERMISSION);
+                } else {
+                    finish();
+                }
+                break;
+            case CLEANUP:
+                next++;
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Makes the given 0-based wave the next one to run. An active wave is ended first.
+    // Only while a game is running: nothing ticks the timeline when it is idle or finished.
+    void jumpTo(int target) {
+        if (phase == Phase.IDLE || phase == Phase.FINISHED) {
+            throw new IllegalStateException("No game is running.");
+        }
+        if (target < 0 || target >= durations.length) {
+            throw new IllegalArgumentException("No wave " + (target + 1) + "; there are " + durations.length + ".");
+        }
+        switch (phase) {
+            case ACTIVE:
+                next = target;
+                enterCleanup();
+                break;
+            case CLEANUP:
+                next = target;
+                break;
+            default:
+                wave = target;
+                enter(Phase.INTERMISSION);
+                break;
+        }
+    }
+
+    // Called by the owner once the ended wave has been cleaned up.
+    void cleanupDone() {
+        if (phase != Phase.CLEANUP) return;
+        if (next < durations.length) {
+            wave = next;
+            enter(Phase.INTERMISSION);
+        } else {
+            finish();
+        }
+    }
+
+    Phase phase() {
+        return phase;
+    }
+
+    // Current wave: the one counting down, running or being cleaned up.
+    int wave() {
+        return wave;
+    }
+
+    boolean isPaused() {
+        return paused;
+    }
+
+    // Whole seconds left in the countdown or active wave, 0 in other phases.
+    int secondsLeft() {
+        switch (phase) {
+            case COUNTDOWN:
+            case INTERMISSION:
+                return countdownSeconds() - phaseTick / TICKS_PER_SECOND;
+            case ACTIVE:
+                return (durations[wave] - phaseTick) / TICKS_PER_SECOND;
+            default:
+                return 0;
+        }
+    }
+
+    private int countdownSeconds() {
+        return phase == Phase.COUNTDOWN ? firstCountdown : intermission;
+    }
+
+    private void tickCountdown() {
+        if (phaseTick % TICKS_PER_SECOND == 0) {
+            int left = countdownSeconds() - phaseTick / TICKS_PER_SECOND;
+            hooks.countdown(wave, left, phase == Phase.COUNTDOWN);
+            if (left <= 0) {
+                enter(Phase.ACTIVE);
+                hooks.waveStarted(wave);
+                tickActive();
+                return;
+            }
+        }
+        phaseTick++;
+    }
+
+    private void tickActive() {
+        if (phaseTick >= durations[wave]) {
+            next = wave + 1;
+            enterCleanup();
+            return;
+        }
+        if (phaseTick % TICKS_PER_SECOND == 0) {
+            hooks.waveSecond(wave, phaseTick / TICKS_PER_SECOND, (durations[wave] - phaseTick) / TICKS_PER_SECOND);
+        }
+        phaseTick++;
+    }
+
+    private void enterCleanup() {
+        enter(Phase.CLEANUP);
+        // The hook may call cleanupDone() straight away, so the phase is set first.
+        hooks.waveEnded(wave);
+    }
+
+    private void finish() {
+        enter(Phase.FINISHED);
+        hooks.finished();
+    }
+
+    private void enter(Phase phase) {
+        this.phase = phase;
+        this.phaseTick = 0;
+    }
+}
@@ -0,0 +1,58 @@
+package com.cozycraftpve;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for alias-method weighted sampling.
+ */
+public class AliasTableTest
+{
+    @Test
+    public void matchesConfiguredWeights()
+    {
+        int[] weights = {50, 30, 10, 10};
+        AliasTable table = new AliasTable(weights);
+        SplittableRandom random = new SplittableRandom(1234);
+        int draws = 200000;
+        int[] counts = new int[weights.length];
+        for (int i = 0; i < draws; i++) {
+            counts[table.sample(random)]++;
+        }
+        for (int i = 0; i < weights.length; i++) {
+            assertEquals("weight index " + i, weights[i] / 100.0, counts[i] / (double) draws, 0.01);
+        }
+    }
+
+    @Test
+    public void neverDrawsZeroWeights()
+    {
+        AliasTable table = new AliasTable(new int[] {0, 5, 0, 1, 0});
+        SplittableRandom random = new SplittableRandom(99);
+        for (int i = 0; i < 10000; i++) {
+            int index = table.sample(random);
+            if (index != 1 && index != 3) {
+                throw new AssertionError("Drew zero-weight index " + index);
+            }
+        }
+    }
+
+    @Test
+    public void singleEntryAlwaysWins()
+    {
+        AliasTable table = new AliasTable(new int[] {7});
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, table.sample(random));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAllZeroWeights()
+    {
+        new AliasTable(new int[] {0, 0});
+    }
+}
@@ -0,0 +1,82 @@
+package com.cozycraftpve;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the game event log's ring buffer, JSON lines and level filtering.
+ */
+public class GameEventLogTest
+{
+    private static GameEventLog.Event event(String name)
+    {
+        return new GameEventLog.Event(0, GameEventLog.Level.INFO, "test", name, new Object[0]);
+    }
+
+    @Test
+    public void ringDropsWhenFullAndKeepsOrder()
+    {
+        GameEventLog.Ring ring = new GameEventLog.Ring(6);
+        assertEquals(8, ring.capacity());
+        for (int i = 0; i < 8; i++) assertTrue(ring.offer(event("e" + i)));
+        assertFalse(ring.offer(event("overflow")));
+
+        assertEquals("e0", ring.poll().name);
+        assertTrue(ring.offer(event("e8")));
+        for (int i = 1; i <= 8; i++) assertEquals("e" + i, ring.poll().name);
+        assertNull(ring.poll());
+    }
+
+    @Test
+    public void ringSurvivesConcurrentProducers() throws InterruptedException
+    {
+        GameEventLog.Ring ring = new GameEventLog.Ring(1 << 16);
+        Thread[] producers = new Thread[4];
+        for (int t = 0; t < producers.length; t++) {
+            producers[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) ring.offer(event("x"));
+            });
+            producers[t].start();
+        }
+        for (Thread producer : producers) producer.join();
+        int polled = 0;
+        while (ring.poll() != null) polled++;
+        assertEquals(40_000, polled);
+    }
+
+    @Test
+    public void writesEscapedJson()
+    {
+        GameEventLog.Event event = new GameEventLog.Event(42, GameEventLog.Level.WARN, "chest", "fill",
+                new Object[] {"x", -3, "source", "say \"hi\"\n", "ok", true});
+        assertEquals("{\"time\":42,\"level\":\"warn\",\"category\":\"chest\",\"event\":\"fill\","
+                + "\"x\":-3,\"source\":\"say \\\"hi\\\"\\n\",\"ok\":true}\n",
+                GameEventLog.appendJson(new StringBuilder(), event).toString());
+    }
+
+    @Test
+    public void writesEnabledEventsToFile() throws Exception
+    {
+        File folder = Files.createTempDirectory("events").toFile();
+        GameEventLog log = new GameEventLog(folder, Logger.getLogger("test"));
+        GameEventLog.Category chest = log.category("chest");
+        log.start();
+        chest.debug("hidden");
+        chest.info("shown", "n", 1);
+        log.close();
+
+        List<String> lines = Files.readAllLines(new File(folder, "events/events.jsonl").toPath(), StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("\"event\":\"shown\",\"n\":1"));
+    }
+}
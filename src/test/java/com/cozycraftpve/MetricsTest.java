@@ -0,0 +1,67 @@
+package com.cozycraftpve;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the metrics registry's timer buckets and Prometheus exposition.
+ */
+public class MetricsTest
+{
+    @Test
+    public void bucketsArePowersOfTwo()
+    {
+        assertEquals(0, Metrics.Timer.bucketOf(0));
+        assertEquals(0, Metrics.Timer.bucketOf(1));
+        assertEquals(1, Metrics.Timer.bucketOf(2));
+        assertEquals(10, Metrics.Timer.bucketOf(1024));
+        assertEquals(11, Metrics.Timer.bucketOf(1025));
+        assertEquals(63, Metrics.Timer.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void quantilesStayWithinOneBucket()
+    {
+        Metrics metrics = new Metrics();
+        Metrics.Timer timer = metrics.timer("test", "Test timer.");
+        for (int i = 1; i <= 1000; i++) timer.record(i * 1000L);
+
+        assertEquals(1000, timer.count());
+        assertEquals(1_000_000, timer.maxNanos());
+        assertEquals(500_500, timer.meanNanos(), 0.001);
+        long p50 = timer.quantileNanos(0.5);
+        assertTrue(p50 >= 500_000 && p50 <= 1_000_000);
+        assertEquals(1_000_000, timer.quantileNanos(0.99));
+    }
+
+    @Test
+    public void exposesCumulativeHistogram()
+    {
+        Metrics metrics = new Metrics();
+        Metrics.Timer timer = metrics.timer("tick", "Tick time.");
+        metrics.counter("kills", "Kills.").add(3);
+        metrics.gauge("tps", "TPS.", () -> 19.5);
+        timer.record(1000);
+        timer.record(3000);
+        timer.record(20_000_000_000L);
+
+        String text = metrics.exposition();
+        assertTrue(text.contains("# TYPE mobroyale_tick_seconds histogram\n"));
+        assertTrue(text.contains("mobroyale_tick_seconds_bucket{le=\"1.024E-6\"} 1\n"));
+        assertTrue(text.contains("mobroyale_tick_seconds_bucket{le=\"4.096E-6\"} 2\n"));
+        assertTrue(text.contains("mobroyale_tick_seconds_bucket{le=\"+Inf\"} 3\n"));
+        assertTrue(text.contains("mobroyale_tick_seconds_count 3\n"));
+        assertTrue(text.contains("mobroyale_kills_total 3\n"));
+        assertTrue(text.contains("mobroyale_tps 19.5\n"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsDuplicateNames()
+    {
+        Metrics metrics = new Metrics();
+        metrics.counter("kills", "Kills.");
+        metrics.counter("kills", "Kills again.");
+    }
+}
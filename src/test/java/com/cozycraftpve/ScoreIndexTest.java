@@ -0,0 +1,98 @@
+package com.cozycraftpve;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the ranked score index.
+ */
+public class ScoreIndexTest
+{
+    @Test
+    public void ordersByScoreDescending()
+    {
+        ScoreIndex index = new ScoreIndex();
+        UUID a = new UUID(0, 1);
+        UUID b = new UUID(0, 2);
+        UUID c = new UUID(0, 3);
+        index.put(a, 10);
+        index.put(b, 30);
+        index.put(c, 20);
+
+        assertEquals(b, index.uuidAt(0));
+        assertEquals(c, index.uuidAt(1));
+        assertEquals(a, index.uuidAt(2));
+        assertEquals(1, index.rank(b));
+        assertEquals(3, index.rank(a));
+
+        index.put(a, 40);
+        assertEquals(a, index.uuidAt(0));
+        assertEquals(40, index.scoreAt(0));
+        assertEquals(1, index.rank(a));
+        assertEquals(2, index.rank(b));
+    }
+
+    @Test
+    public void removeAndClear()
+    {
+        ScoreIndex index = new ScoreIndex();
+        UUID a = new UUID(0, 1);
+        index.put(a, 5);
+        assertTrue(index.remove(a));
+        assertFalse(index.remove(a));
+        assertEquals(0, index.rank(a));
+        assertEquals(0, index.size());
+
+        index.put(a, 5);
+        index.clear();
+        assertFalse(index.contains(a));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void matchesFullSortUnderRandomUpdates()
+    {
+        Random random = new Random(42);
+        ScoreIndex index = new ScoreIndex();
+        Map<UUID, Integer> scores = new HashMap<>();
+        List<UUID> players = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            players.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+
+        for (int step = 0; step < 5000; step++) {
+            UUID uuid = players.get(random.nextInt(players.size()));
+            if (random.nextInt(20) == 0) {
+                index.remove(uuid);
+                scores.remove(uuid);
+            } else {
+                int score = scores.getOrDefault(uuid, 0) + random.nextInt(25);
+                index.put(uuid, score);
+                scores.put(uuid, score);
+            }
+        }
+
+        List<Map.Entry<UUID, Integer>> sorted = new ArrayList<>(scores.entrySet());
+        sorted.sort((x, y) -> {
+            int cmp = y.getValue().compareTo(x.getValue());
+            return cmp != 0 ? cmp : x.getKey().compareTo(y.getKey());
+        });
+
+        assertEquals(sorted.size(), index.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(sorted.get(i).getKey(), index.uuidAt(i));
+            assertEquals((long) sorted.get(i).getValue(), index.scoreAt(i));
+            assertEquals(i + 1, index.rank(sorted.get(i).getKey()));
+        }
+    }
+}
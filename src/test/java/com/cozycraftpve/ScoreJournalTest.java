@@ -0,0 +1,140 @@
+package com.cozycraftpve;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Crash-recovery tests for the score journal.
+ */
+public class ScoreJournalTest
+{
+    private static final Logger LOGGER = Logger.getLogger("ScoreJournalTest");
+
+    private File folder;
+    private File journal;
+
+    @Before
+    public void createFolder() throws IOException
+    {
+        folder = Files.createTempDirectory("journal").toFile();
+        journal = new File(folder, "scores.journal");
+    }
+
+    @After
+    public void deleteFolder()
+    {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        folder.delete();
+    }
+
+    /** Starts a journal over the folder, replaying it into stats. */
+    private ScoreJournal open(PlayerStats stats)
+    {
+        ScoreJournal scores = new ScoreJournal(folder, LOGGER);
+        scores.load(stats);
+        scores.start();
+        return scores;
+    }
+
+    /** Waits for the writer thread to flush the journal to the given length. */
+    private void awaitLength(long length) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (journal.length() != length && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(length, journal.length());
+    }
+
+    @Test
+    public void tornRecordIsDroppedBeforeAppending() throws Exception
+    {
+        UUID alice = new UUID(1, 2);
+        UUID bob = new UUID(3, 4);
+        open(new PlayerStats()).append(alice, 10);
+        awaitLength(12 + 28);
+
+        // Crash in the middle of the next record.
+        try (FileOutputStream out = new FileOutputStream(journal, true)) {
+            out.write(new byte[] {0, 0, 0, 0, 0, 0, 0, 3, 0, 0, 0});
+        }
+
+        PlayerStats restarted = new PlayerStats();
+        ScoreJournal scores = open(restarted);
+        assertEquals(10, restarted.points(restarted.slot(alice)));
+        scores.append(bob, 7);
+        scores.append(alice, 5);
+        awaitLength(12 + 3 * 28);
+
+        PlayerStats replayed = new PlayerStats();
+        new ScoreJournal(folder, LOGGER).load(replayed);
+        assertEquals(15, replayed.points(replayed.slot(alice)));
+        assertEquals(7, replayed.points(replayed.slot(bob)));
+        assertEquals(2, replayed.size());
+    }
+
+    @Test
+    public void failedDeltaIsRetriedWithTheNextBatch() throws Exception
+    {
+        // A directory where the journal should be makes every journal write fail.
+        assertTrue(journal.mkdir());
+        CountDownLatch failed = new CountDownLatch(1);
+        Handler handler = new Handler()
+        {
+            @Override
+            public void publish(LogRecord record)
+            {
+                if (record.getMessage().startsWith("Could not write scores!")) failed.countDown();
+            }
+
+            @Override
+            public void flush()
+            {
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+        LOGGER.addHandler(handler);
+        UUID alice = new UUID(1, 2);
+        UUID bob = new UUID(3, 4);
+        try {
+            ScoreJournal scores = open(new PlayerStats());
+            scores.append(alice, 10);
+            assertTrue(failed.await(5, TimeUnit.SECONDS));
+
+            assertTrue(journal.delete());
+            scores.append(bob, 7);
+            awaitLength(12 + 2 * 28);
+        } finally {
+            LOGGER.removeHandler(handler);
+        }
+
+        PlayerStats replayed = new PlayerStats();
+        new ScoreJournal(folder, LOGGER).load(replayed);
+        assertEquals(10, replayed.points(replayed.slot(alice)));
+        assertEquals(7, replayed.points(replayed.slot(bob)));
+    }
+}
@@ -0,0 +1,134 @@
+package com.cozycraftpve;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Round-trip tests for the binary session archive format.
+ */
+public class SessionArchiveTest
+{
+    private File folder;
+
+    @Before
+    public void createFolder() throws IOException
+    {
+        folder = Files.createTempDirectory("sessions").toFile();
+    }
+
+    @After
+    public void deleteFolder()
+    {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        folder.delete();
+    }
+
+    @Test
+    public void roundTripsScoresAndDeathsSortedByScore() throws IOException
+    {
+        UUID a = new UUID(1, 1);
+        UUID b = new UUID(2, 2);
+        UUID c = new UUID(3, 3);
+        Map<UUID, Integer> scores = new HashMap<>();
+        scores.put(a, 15);
+        scores.put(b, 120);
+        scores.put(c, 40);
+        Map<UUID, Integer> deaths = new HashMap<>();
+        deaths.put(b, 3);
+
+        File file = new File(folder, "s1" + SessionArchive.EXTENSION);
+        SessionArchive.write(file, scores, deaths);
+        assertEquals(SessionArchive.HEADER_SIZE + 3 * SessionArchive.RECORD_SIZE, file.length());
+
+        SessionArchive archive = SessionArchive.open(file);
+        assertEquals(3, archive.size());
+        assertEquals(b, archive.uuidAt(0));
+        assertEquals(120, archive.scoreAt(0));
+        assertEquals(3, archive.deathsAt(0));
+        assertEquals(c, archive.uuidAt(1));
+        assertEquals(a, archive.uuidAt(2));
+        assertEquals(0, archive.deathsAt(2));
+
+        assertEquals(2, archive.indexOf(a));
+        assertEquals(0, archive.indexOf(b));
+        assertEquals(-1, archive.indexOf(new UUID(9, 9)));
+    }
+
+    @Test
+    public void roundTripsEmptySession() throws IOException
+    {
+        File file = new File(folder, "empty" + SessionArchive.EXTENSION);
+        SessionArchive.write(file, new HashMap<UUID, Integer>(), null);
+
+        SessionArchive archive = SessionArchive.open(file);
+        assertEquals(0, archive.size());
+        assertEquals(-1, archive.indexOf(new UUID(1, 1)));
+    }
+
+    @Test
+    public void roundTripsLargeSession() throws IOException
+    {
+        Random random = new Random(7);
+        Map<UUID, Integer> scores = new HashMap<>();
+        for (int i = 0; i < 10000; i++) {
+            scores.put(new UUID(random.nextLong(), random.nextLong()), random.nextInt(1000));
+        }
+
+        File file = new File(folder, "large" + SessionArchive.EXTENSION);
+        SessionArchive.write(file, scores, null);
+        SessionArchive archive = SessionArchive.open(file);
+
+        assertEquals(scores.size(), archive.size());
+        for (int i = 0; i < archive.size(); i++) {
+            UUID uuid = archive.uuidAt(i);
+            assertEquals((long) scores.get(uuid), archive.scoreAt(i));
+            if (i > 0 && archive.scoreAt(i) > archive.scoreAt(i - 1)) {
+                fail("Records are not sorted by score at position " + i);
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsFilesWithoutHeader() throws IOException
+    {
+        File file = new File(folder, "bogus" + SessionArchive.EXTENSION);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[SessionArchive.HEADER_SIZE]);
+        }
+        SessionArchive.open(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedArchives() throws IOException
+    {
+        Map<UUID, Integer> scores = new HashMap<>();
+        scores.put(new UUID(1, 1), 1);
+        scores.put(new UUID(2, 2), 2);
+        File file = new File(folder, "cut" + SessionArchive.EXTENSION);
+        SessionArchive.write(file, scores, null);
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(bytes, 0, bytes.length - 4);
+        }
+        SessionArchive.open(file);
+    }
+}
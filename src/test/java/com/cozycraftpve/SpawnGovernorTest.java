@@ -0,0 +1,46 @@
+package com.cozycraftpve;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for TPS-aware spawn throttling.
+ */
+public class SpawnGovernorTest
+{
+    private static SpawnGovernor runAt(double tps)
+    {
+        SpawnGovernor governor = new SpawnGovernor();
+        long interval = (long) (1_000_000_000L / tps);
+        long now = 1;
+        for (int tick = 0; tick < 1000; tick++) {
+            governor.onTick(now);
+            now += interval;
+        }
+        return governor;
+    }
+
+    @Test
+    public void fullRateWhenServerKeepsUp()
+    {
+        SpawnGovernor governor = runAt(20.0);
+        assertEquals(20.0, governor.tps(), 0.01);
+        assertEquals(30, governor.allowance(30, 0, 0));
+    }
+
+    @Test
+    public void maxAliveCapsTheBatch()
+    {
+        SpawnGovernor governor = runAt(20.0);
+        assertEquals(5, governor.allowance(30, 55, 60));
+        assertEquals(0, governor.allowance(30, 70, 60));
+    }
+
+    @Test
+    public void scalesDownBetweenTargetAndMinimum()
+    {
+        assertEquals(20, runAt(17.0).allowance(40, 0, 0));
+        assertEquals(0, runAt(12.0).allowance(40, 0, 0));
+    }
+}
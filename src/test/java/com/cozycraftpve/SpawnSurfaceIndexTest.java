@@ -0,0 +1,72 @@
+package com.cozycraftpve;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.junit.Test;
+
+/**
+ * Unit tests for block position packing and the spawn surface scan.
+ */
+public class SpawnSurfaceIndexTest
+{
+    // Stone floor at y=-31 everywhere, with a stone pillar at x=2 that blocks the air above.
+    private static ChunkSnapshot chunk()
+    {
+        return (ChunkSnapshot) Proxy.newProxyInstance(ChunkSnapshot.class.getClassLoader(),
+                new Class<?>[] {ChunkSnapshot.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("getBlockType")) return null;
+                    int x = (Integer) args[0];
+                    int y = (Integer) args[1];
+                    if (y == -31 || (x == 2 && y > -31)) return Material.STONE;
+                    return Material.AIR;
+                });
+    }
+
+    @Test
+    public void packsNegativeCoordinates()
+    {
+        int[][] cases = {{0, 0, 0}, {-30000000, -64, 29999999}, {12345, 319, -678}, {-1, -1, -1}};
+        for (int[] c : cases) {
+            long packed = BlockPos.pack(c[0], c[1], c[2]);
+            assertEquals(c[0], BlockPos.x(packed));
+            assertEquals(c[1], BlockPos.y(packed));
+            assertEquals(c[2], BlockPos.z(packed));
+        }
+        long key = BlockPos.chunkKeyAt(-17, 40);
+        assertEquals(-2, BlockPos.chunkX(key));
+        assertEquals(2, BlockPos.chunkZ(key));
+    }
+
+    @Test
+    public void findsOnlyStandableFloorInsideRadius()
+    {
+        ChunkSnapshot[] snapshots = {chunk(), chunk(), chunk(), chunk()};
+        // Centre (0, 0), radius 3: chunks -1..0 on both axes.
+        long[] found = SpawnSurfaceIndex.scan(snapshots, -1, -1, 2, 0, 0, 3.0, -40, -20);
+        assertTrue(found.length > 0);
+        for (long packed : found) {
+            int x = BlockPos.x(packed);
+            int z = BlockPos.z(packed);
+            assertEquals(-31, BlockPos.y(packed));
+            assertTrue("pillar column " + x, (x & 15) != 2);
+            assertTrue((x + 0.5) * (x + 0.5) + (z + 0.5) * (z + 0.5) <= 9.0);
+        }
+    }
+
+    @Test
+    public void skipsChunksThatAreNotLoaded()
+    {
+        // Chunk (0, 0) is not loaded; nothing may be found in it.
+        ChunkSnapshot[] snapshots = {chunk(), chunk(), chunk(), null};
+        long[] found = SpawnSurfaceIndex.scan(snapshots, -1, -1, 2, 0, 0, 3.0, -40, -20);
+        assertTrue(found.length > 0);
+        for (long packed : found) {
+            assertTrue(BlockPos.x(packed) < 0 || BlockPos.z(packed) < 0);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.cozycraftpve;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.bukkit.entity.Entity;
+import org.junit.Test;
+
+/**
+ * Unit tests for the wave-mob registry's hash and removal bookkeeping.
+ */
+public class WaveMobRegistryTest
+{
+    private static Entity entity(int id, UUID uuid, boolean[] removed)
+    {
+        return (Entity) Proxy.newProxyInstance(Entity.class.getClassLoader(), new Class<?>[] {Entity.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getEntityId":
+                            return id;
+                        case "getUniqueId":
+                            return uuid;
+                        case "isValid":
+                            return !removed[0];
+                        case "remove":
+                            removed[0] = true;
+                            return null;
+                        case "hashCode":
+                            return id;
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    @Test
+    public void tracksWaveAndForgetsOnUnregister()
+    {
+        WaveMobRegistry registry = new WaveMobRegistry();
+        List<Entity> mobs = new ArrayList<>();
+        for (int id = 0; id < 1000; id++) {
+            Entity mob = entity(id * 7, UUID.randomUUID(), new boolean[1]);
+            registry.register(mob, id % 5);
+            mobs.add(mob);
+        }
+        assertEquals(1000, registry.alive());
+
+        Random random = new Random(3);
+        List<Entity> removed = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            Entity mob = mobs.remove(random.nextInt(mobs.size()));
+            registry.unregister(mob);
+            removed.add(mob);
+        }
+        assertEquals(400, registry.alive());
+        for (Entity mob : mobs) {
+            assertEquals(mob.getEntityId() / 7 % 5, registry.waveOf(mob));
+        }
+        for (Entity mob : removed) {
+            assertFalse(registry.isWaveMob(mob));
+        }
+    }
+
+    @Test
+    public void reusedEntityIdIsNotAWaveMob()
+    {
+        WaveMobRegistry registry = new WaveMobRegistry();
+        registry.register(entity(42, UUID.randomUUID(), new boolean[1]), 0);
+        assertFalse(registry.isWaveMob(entity(42, UUID.randomUUID(), new boolean[1])));
+        assertEquals(-1, registry.waveOf(entity(43, UUID.randomUUID(), new boolean[1])));
+    }
+
+    @Test
+    public void snapshotKeepsMobsTrackedUntilUnregistered()
+    {
+        WaveMobRegistry registry = new WaveMobRegistry();
+        Entity first = entity(1, UUID.randomUUID(), new boolean[1]);
+        Entity second = entity(2, UUID.randomUUID(), new boolean[1]);
+        registry.register(first, 0);
+        registry.register(second, 0);
+        entity(3, UUID.randomUUID(), new boolean[1]);
+
+        Entity[] tracked = registry.snapshot();
+        assertEquals(2, tracked.length);
+        assertTrue(tracked[0] == first || tracked[1] == first);
+        // Still a wave mob while the cleanup works through the snapshot.
+        assertEquals(0, registry.waveOf(second));
+        registry.unregister(first);
+        assertEquals(1, registry.alive());
+        assertFalse(registry.isWaveMob(first));
+        assertTrue(registry.isWaveMob(second));
+    }
+}
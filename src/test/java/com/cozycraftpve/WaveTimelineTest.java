@@ -0,0 +1,183 @@
+package com.cozycraftpve;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the tick-driven wave timeline, run against a fake clock.
+ */
+public class WaveTimelineTest
+{
+    private static final int[] FIVE_WAVES = {150, 150, 150, 150, 180};
+
+    /** Records hook calls; cleanup completes cleanupTicks ticks after a wave ends. */
+    private static class Recorder implements WaveTimeline.Hooks
+    {
+        final List<String> events = new ArrayList<>();
+        WaveTimeline timeline;
+        int cleanupTicks = 0;
+        int cleanupLeft = -1;
+        int seconds = 0;
+        boolean finished = false;
+
+        @Override
+        public void countdown(int wave, int secondsLeft, boolean first)
+        {
+            if (secondsLeft == 0) events.add("go " + wave);
+        }
+
+        @Override
+        public void waveStarted(int wave)
+        {
+            events.add("start " + wave);
+        }
+
+        @Override
+        public void waveSecond(int wave, int secondsElapsed, int secondsLeft)
+        {
+            seconds++;
+        }
+
+        @Override
+        public void waveEnded(int wave)
+        {
+            events.add("end " + wave);
+            if (cleanupTicks == 0) {
+                timeline.cleanupDone();
+            } else {
+                cleanupLeft = cleanupTicks;
+            }
+        }
+
+        @Override
+        public void finished()
+        {
+            finished = true;
+            events.add("finished");
+        }
+
+        /** Advances the fake clock by one tick. */
+        void tick()
+        {
+            timeline.tick();
+            if (cleanupLeft > 0 && --cleanupLeft == 0) timeline.cleanupDone();
+        }
+
+        int runUntilFinished(int limit)
+        {
+            int ticks = 0;
+            while (!finished && ticks < limit) {
+                tick();
+                ticks++;
+            }
+            return ticks;
+        }
+    }
+
+    private static Recorder recorder()
+    {
+        Recorder recorder = new Recorder();
+        recorder.timeline = new WaveTimeline(recorder);
+        return recorder;
+    }
+
+    @Test
+    public void runsFiveWavesInTickTime()
+    {
+        Recorder game = recorder();
+        game.cleanupTicks = 30;
+        game.timeline.start(FIVE_WAVES, 15, 10);
+        int ticks = game.runUntilFinished(1_000_000);
+
+        assertTrue(game.finished);
+        assertEquals(WaveTimeline.Phase.FINISHED, game.timeline.phase());
+        // Lead-in, five waves, four intermissions, five cleanups.
+        int expected = 15 * 20 + (150 * 4 + 180) * 20 + 4 * 10 * 20 + 5 * 30;
+        assertEquals(expected, ticks, 5);
+        assertEquals(150 * 4 + 180, game.seconds);
+        assertEquals("[go 0, start 0, end 0, go 1, start 1, end 1, go 2, start 2, end 2, "
+                + "go 3, start 3, end 3, go 4, start 4, end 4, finished]", game.events.toString());
+    }
+
+    @Test
+    public void pauseStopsTheClock()
+    {
+        Recorder game = recorder();
+        game.timeline.start(FIVE_WAVES, 15, 10);
+        for (int i = 0; i < 15 * 20 + 1; i++) game.tick();
+        assertEquals(WaveTimeline.Phase.ACTIVE, game.timeline.phase());
+        int left = game.timeline.secondsLeft();
+
+        game.timeline.pause();
+        for (int i = 0; i < 10_000; i++) game.tick();
+        assertEquals(left, game.timeline.secondsLeft());
+        assertEquals(WaveTimeline.Phase.ACTIVE, game.timeline.phase());
+
+        game.timeline.resume();
+        for (int i = 0; i < 40; i++) game.tick();
+        assertEquals(left - 2, game.timeline.secondsLeft());
+    }
+
+    @Test
+    public void skipAndJumpChangeTheNextWave()
+    {
+        Recorder game = recorder();
+        game.cleanupTicks = 5;
+        game.timeline.start(FIVE_WAVES, 15, 10);
+        for (int i = 0; i < 15 * 20 + 100; i++) game.tick();
+
+        game.timeline.jumpTo(3);
+        assertEquals(WaveTimeline.Phase.CLEANUP, game.timeline.phase());
+        for (int i = 0; i < 5; i++) game.tick();
+        assertEquals(WaveTimeline.Phase.INTERMISSION, game.timeline.phase());
+        assertEquals(3, game.timeline.wave());
+
+        game.timeline.skipWave();
+        assertEquals(4, game.timeline.wave());
+        game.runUntilFinished(1_000_000);
+        assertEquals("[go 0, start 0, end 0, go 4, start 4, end 4, finished]", game.events.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownWave()
+    {
+        Recorder game = recorder();
+        game.timeline.start(FIVE_WAVES, 15, 10);
+        game.timeline.jumpTo(5);
+    }
+
+    @Test
+    public void stopGoesIdle()
+    {
+        Recorder game = recorder();
+        game.timeline.start(FIVE_WAVES, 0, 0);
+        game.tick();
+        game.timeline.stop();
+        for (int i = 0; i < 10_000; i++) game.tick();
+        assertEquals(WaveTimeline.Phase.IDLE, game.timeline.phase());
+        assertFalse(game.finished);
+    }
+
+    @Test
+    public void jumpIsRejectedWhenNoGameIsRunning()
+    {
+        Recorder game = recorder();
+        game.timeline.start(FIVE_WAVES, 0, 0);
+        game.tick();
+        game.timeline.stop();
+        try {
+            game.timeline.jumpTo(2);
+            fail("jumpTo after stop() should be rejected");
+        } catch (IllegalStateException expected) {
+            // No game loop would tick the intermission.
+        }
+        assertEquals(WaveTimeline.Phase.IDLE, game.timeline.phase());
+    }
+}